@@ -0,0 +1,62 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConfigBenchmark {
+
+    private Path configFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        configFile = Files.createTempFile("config-benchmark", ".properties");
+        Files.write(configFile, Arrays.asList(
+                "CLUSTER=https://example-cluster-url.com",
+                "ANDROID-DEVICE=emulator-5554",
+                "IOS-DEVICE=your-ios-udid",
+                "DRIVER_POOL_SIZE=4"));
+        System.setProperty("CONFIG_FILE", configFile.toString());
+        ConfigManager.reload();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.clearProperty("CONFIG_FILE");
+        ConfigManager.reload();
+        Files.deleteIfExists(configFile);
+    }
+
+    // The lookup BrowserFactory performs for every mobile session
+    @Benchmark
+    @Threads(4)
+    public String androidDeviceLookup() {
+        return BrowserFactory.getAndroidDevice();
+    }
+
+    @Benchmark
+    public int typedLookup() {
+        return ConfigManager.getInt("DRIVER_POOL_SIZE", 1);
+    }
+
+    @Benchmark
+    public void reload() {
+        ConfigManager.reload();
+    }
+}
@@ -0,0 +1,107 @@
+package core;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExcelUtilsBenchmark {
+
+    private static final String SHEET = "Data";
+
+    @Param({"1000"})
+    public int rows;
+
+    private Path workbookFile;
+    private ExcelUtils loaded;
+    private ExcelUtils cached;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workbookFile = Files.createTempFile("excel-benchmark", ".xlsx");
+        System.setProperty("DATA_CACHE_DIR", Files.createTempDirectory("excel-benchmark-cache").toString());
+        ConfigManager.reload();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = new FileOutputStream(workbookFile.toFile())) {
+            Sheet sheet = workbook.createSheet(SHEET);
+            Row header = sheet.createRow(0);
+            for (int c = 0; c < 10; c++) {
+                header.createCell(c).setCellValue("Column" + c);
+            }
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < 10; c++) {
+                    if (c % 2 == 0) {
+                        row.createCell(c).setCellValue("value-" + r + "-" + c);
+                    } else {
+                        row.createCell(c).setCellValue(r * c);
+                    }
+                }
+            }
+            workbook.write(out);
+        }
+        loaded = new ExcelUtils(workbookFile.toString(), SHEET, false);
+        cached = new ExcelUtils(workbookFile.toString(), SHEET, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        loaded.closeWorkbook();
+        Files.deleteIfExists(workbookFile);
+    }
+
+    @Benchmark
+    public void loadWorkbook(Blackhole blackhole) throws IOException {
+        ExcelUtils excel = new ExcelUtils(workbookFile.toString(), SHEET, false);
+        blackhole.consume(excel.getRowCount());
+        excel.closeWorkbook();
+    }
+
+    @Benchmark
+    public void loadFromCache(Blackhole blackhole) throws IOException {
+        blackhole.consume(new ExcelUtils(workbookFile.toString(), SHEET, true).getRowCount());
+    }
+
+    @Benchmark
+    public void streamAllRows(Blackhole blackhole) throws IOException {
+        try (ExcelStreamReader reader = new ExcelStreamReader(workbookFile.toString(), SHEET)) {
+            for (Map<String, String> row : reader) {
+                blackhole.consume(row);
+            }
+        }
+    }
+
+    @Benchmark
+    public void getRowDataAsMapPerRow(Blackhole blackhole) {
+        for (int r = 1; r <= rows; r++) {
+            blackhole.consume(loaded.getRowDataAsMap(r));
+        }
+    }
+
+    @Benchmark
+    public void getRowDataAsMapPerRowFromCache(Blackhole blackhole) {
+        for (int r = 1; r <= rows; r++) {
+            blackhole.consume(cached.getRowDataAsMap(r));
+        }
+    }
+}
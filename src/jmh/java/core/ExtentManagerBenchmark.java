@@ -0,0 +1,59 @@
+package core;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Contention on test creation and lookup; no reporter is attached so nothing is written to disk.
+// Iterations are short because every created test stays in the report model.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Threads(8)
+public class ExtentManagerBenchmark {
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ExtentManager.flushNow();
+        ExtentManager.extent = new ExtentReports();
+    }
+
+    @Benchmark
+    public ExtentTest createAndGetTest() {
+        ExtentManager.createTest("scenario", "");
+        return ExtentManager.getTest();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadTest {
+        // Taking the benchmark state makes JMH set up the report first
+        @Setup(Level.Iteration)
+        public void setUp(ExtentManagerBenchmark benchmark) {
+            ExtentManager.createTest("thread", "");
+        }
+    }
+
+    @Benchmark
+    public ExtentTest getExistingTest(ThreadTest threadTest) {
+        return ExtentManager.getTest();
+    }
+
+    @Benchmark
+    public void logEvent(ThreadTest threadTest) {
+        ExtentManager.info("step");
+    }
+}
@@ -0,0 +1,98 @@
+package core;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonUtilsBenchmark {
+
+    @Param({"500"})
+    public int channels;
+
+    private Path jsonFile;
+    private JsonUtils tree;
+    private JsonUtils cached;
+    private String deepPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        jsonFile = Files.createTempFile("json-benchmark", ".json");
+        System.setProperty("DATA_CACHE_DIR", Files.createTempDirectory("json-benchmark-cache").toString());
+        ConfigManager.reload();
+
+        ObjectNode root = JsonUtils.getMapper().createObjectNode();
+        root.put("cluster", "https://example-cluster-url.com");
+        root.put("environment", "staging");
+        ObjectNode config = root.putObject("config");
+        ArrayNode list = config.putArray("channels");
+        for (int i = 0; i < channels; i++) {
+            ObjectNode channel = list.addObject();
+            channel.put("id", "channel" + i);
+            channel.put("mode", i % 2 == 0 ? "SFU" : "MCU");
+            channel.putObject("media").put("bitrate", 1000 + i).put("codec", "VP8");
+        }
+        JsonUtils.getMapper().writeValue(jsonFile.toFile(), root);
+
+        tree = new JsonUtils(jsonFile.toString(), false);
+        cached = new JsonUtils(jsonFile.toString(), true);
+        deepPath = "config.channels[" + (channels - 1) + "].media.codec";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jsonFile);
+    }
+
+    @Benchmark
+    public JsonUtils loadTree() throws IOException {
+        return new JsonUtils(jsonFile.toString(), false);
+    }
+
+    @Benchmark
+    public JsonUtils loadFromCache() throws IOException {
+        return new JsonUtils(jsonFile.toString(), true);
+    }
+
+    @Benchmark
+    public String topLevelValue() {
+        return tree.getValue("cluster");
+    }
+
+    @Benchmark
+    public String deepValue() {
+        return tree.getValueAt(deepPath);
+    }
+
+    @Benchmark
+    public String deepValueFromCache() {
+        return cached.getValueAt(deepPath);
+    }
+
+    @Benchmark
+    public Map<String, String> nestedDataFromCache() {
+        return cached.getNestedData("config");
+    }
+
+    @Benchmark
+    public String streamSingleValue() throws IOException {
+        return JsonUtils.extract(jsonFile.toString(), "environment").get("environment").asText();
+    }
+}
@@ -0,0 +1,76 @@
+package core;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Table helpers against a stub driver with a simulated per-command round trip
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReusableLibraryTableBenchmark {
+
+    private static final By TABLE = By.id("participants");
+
+    @Param({"100", "500"})
+    public int rows;
+
+    @Param({"200"})
+    public int latencyMicros;
+
+    private ReusableLibrary library;
+    private StubWebDriver driver;
+    private String lastValue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        driver = new StubWebDriver(TimeUnit.MICROSECONDS.toNanos(latencyMicros), rows, 5);
+        library = new ReusableLibrary(driver);
+        lastValue = "r" + rows + "c2";
+    }
+
+    @Benchmark
+    public int rowIndexByCellValue() {
+        return library.getRowIndexByCellValue(TABLE, 2, lastValue);
+    }
+
+    // The per-row lookup getRowIndexByCellValue used before table snapshots, for comparison
+    @Benchmark
+    public int rowIndexByCellValuePerRow() {
+        WebElement table = library.waitForVisibility(driver.findElement(TABLE));
+        List<WebElement> tableRows = table.findElements(By.xpath(".//tr"));
+        for (int i = 1; i <= tableRows.size(); i++) {
+            WebElement cell = tableRows.get(i - 1).findElement(By.xpath(".//td[2]"));
+            if (cell.getText().equalsIgnoreCase(lastValue)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public boolean valuePresentInTable() {
+        return library.isValuePresentInTable(TABLE, lastValue);
+    }
+
+    @Benchmark
+    public String tableCellValue() {
+        return library.getTableCellValue(TABLE, rows, 2);
+    }
+
+    @Benchmark
+    public List<WebElement> columnValues() {
+        return library.getColumnValues(TABLE, 2);
+    }
+}
@@ -0,0 +1,294 @@
+package core;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// In-process WebDriver serving one HTML-like table. Every command sleeps for a fixed round-trip
+// latency, which is what dominates table helpers over a remote Grid or Appium connection.
+class StubWebDriver implements WebDriver, JavascriptExecutor {
+
+    private static final Pattern CELL = Pattern.compile("\\.//tr\\[(\\d+)]/td\\[(\\d+)]");
+    private static final Pattern ROW_CELLS = Pattern.compile("\\.//tr\\[(\\d+)]/td");
+    private static final Pattern COLUMN = Pattern.compile("\\.//tr/td\\[(\\d+)]");
+    private static final Pattern ROW_CELL = Pattern.compile("\\.//td\\[(\\d+)]");
+
+    private final long latencyNanos;
+    private final List<String> headers;
+    private final List<List<String>> rows;
+    private long commands;
+
+    StubWebDriver(long latencyNanos, int rowCount, int columnCount) {
+        this.latencyNanos = latencyNanos;
+        this.headers = new ArrayList<>();
+        for (int c = 1; c <= columnCount; c++) {
+            headers.add("Column" + c);
+        }
+        this.rows = new ArrayList<>();
+        for (int r = 1; r <= rowCount; r++) {
+            List<String> row = new ArrayList<>();
+            for (int c = 1; c <= columnCount; c++) {
+                row.add("r" + r + "c" + c);
+            }
+            rows.add(row);
+        }
+    }
+
+    long getCommandCount() {
+        return commands;
+    }
+
+    private void roundTrip() {
+        commands++;
+        LockSupport.parkNanos(latencyNanos);
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        roundTrip();
+        Map<String, Object> table = new HashMap<>();
+        table.put("headers", headers);
+        List<Object> attributes = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            attributes.add(Collections.emptyList());
+        }
+        table.put("rows", rows);
+        table.put("attributes", attributes);
+        return table;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        roundTrip();
+        return Boolean.TRUE;
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        roundTrip();
+        return new StubElement(0, 0);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        roundTrip();
+        return Collections.singletonList(new StubElement(0, 0));
+    }
+
+    @Override
+    public void get(String url) {
+        roundTrip();
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        roundTrip();
+        return "about:blank";
+    }
+
+    @Override
+    public String getTitle() {
+        roundTrip();
+        return "";
+    }
+
+    @Override
+    public String getPageSource() {
+        roundTrip();
+        return "";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void quit() {
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Collections.singleton("main");
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return "main";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Navigation navigate() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException();
+    }
+
+    // row 0 is the table itself; column 0 is a row; both set is a cell
+    private class StubElement implements WebElement {
+        private final int row;
+        private final int column;
+
+        StubElement(int row, int column) {
+            this.row = row;
+            this.column = column;
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            roundTrip();
+            String xpath = xpathOf(by);
+            Matcher matcher = CELL.matcher(xpath);
+            if (matcher.matches()) {
+                return cell(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            }
+            matcher = ROW_CELL.matcher(xpath);
+            if (matcher.matches() && row > 0) {
+                return cell(row, Integer.parseInt(matcher.group(1)));
+            }
+            throw new NoSuchElementException(xpath);
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            roundTrip();
+            String xpath = xpathOf(by);
+            List<WebElement> found = new ArrayList<>();
+            Matcher matcher;
+            if (xpath.equals(".//tr")) {
+                for (int r = 1; r <= rows.size(); r++) {
+                    found.add(new StubElement(r, 0));
+                }
+            } else if (xpath.equals(".//td")) {
+                for (int r = 1; r <= rows.size(); r++) {
+                    for (int c = 1; c <= headers.size(); c++) {
+                        found.add(new StubElement(r, c));
+                    }
+                }
+            } else if ((matcher = COLUMN.matcher(xpath)).matches()) {
+                for (int r = 1; r <= rows.size(); r++) {
+                    found.add(new StubElement(r, Integer.parseInt(matcher.group(1))));
+                }
+            } else if ((matcher = ROW_CELLS.matcher(xpath)).matches()) {
+                for (int c = 1; c <= headers.size(); c++) {
+                    found.add(new StubElement(Integer.parseInt(matcher.group(1)), c));
+                }
+            }
+            return found;
+        }
+
+        private WebElement cell(int r, int c) {
+            if (r < 1 || r > rows.size() || c < 1 || c > headers.size()) {
+                throw new NoSuchElementException("tr[" + r + "]/td[" + c + "]");
+            }
+            return new StubElement(r, c);
+        }
+
+        private String xpathOf(By by) {
+            String description = by.toString();
+            return description.substring(description.indexOf(':') + 1).trim();
+        }
+
+        @Override
+        public String getText() {
+            roundTrip();
+            return row > 0 && column > 0 ? rows.get(row - 1).get(column - 1) : "";
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            roundTrip();
+            return true;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            roundTrip();
+            return true;
+        }
+
+        @Override
+        public void click() {
+            roundTrip();
+        }
+
+        @Override
+        public void submit() {
+            roundTrip();
+        }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {
+            roundTrip();
+        }
+
+        @Override
+        public void clear() {
+            roundTrip();
+        }
+
+        @Override
+        public String getTagName() {
+            return row == 0 ? "table" : column == 0 ? "tr" : "td";
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            roundTrip();
+            return null;
+        }
+
+        @Override
+        public boolean isSelected() {
+            return false;
+        }
+
+        @Override
+        public Point getLocation() {
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize() {
+            return new Dimension(10, 10);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            return new Rectangle(getLocation(), getSize());
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            return "";
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
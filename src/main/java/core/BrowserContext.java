@@ -0,0 +1,50 @@
+package core;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Groups the sessions of one multi-user scenario. Each participant gets its own scope, so two
+// users on the same browser type get separate sessions, and close() releases all of them.
+public class BrowserContext implements AutoCloseable {
+
+    private final String scope;
+    private final Map<String, WebDriver> participants = new LinkedHashMap<>();
+
+    BrowserContext(String scope) {
+        this.scope = scope;
+    }
+
+    public synchronized WebDriver open(String participant, String browserType) {
+        if (participants.containsKey(participant)) {
+            throw new IllegalStateException("Participant already has a browser: " + participant);
+        }
+        WebDriver driver = BrowserFactory.getDriver(scope + "/" + participant, browserType);
+        participants.put(participant, driver);
+        return driver;
+    }
+
+    public synchronized WebDriver get(String participant) {
+        WebDriver driver = participants.get(participant);
+        if (driver == null) {
+            throw new IllegalArgumentException("No browser opened for participant: " + participant);
+        }
+        return driver;
+    }
+
+    public synchronized Map<String, WebDriver> getDrivers() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(participants));
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    @Override
+    public synchronized void close() {
+        participants.clear();
+        BrowserFactory.cleanupScope(scope);
+    }
+}
@@ -7,6 +7,9 @@ import io.appium.java_client.android.options.UiAutomator2Options;
 import io.appium.java_client.ios.options.XCUITestOptions;
 import io.appium.java_client.service.local.AppiumDriverLocalService;
 import io.appium.java_client.service.local.AppiumServiceBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
 import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
@@ -16,50 +19,208 @@ import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
 import org.openqa.selenium.safari.SafariDriver;
 import org.openqa.selenium.safari.SafariOptions;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.net.URI;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BrowserFactory {
-    private static final Map<String, WebDriver> driverMap = new ConcurrentHashMap<>();
+    // Sessions are keyed by "<scope>|<browserType>" so parallel scenarios never share a browser
+    private static final Logger log = LogManager.getLogger(BrowserFactory.class);
+    private static final Map<String, CompletableFuture<WebDriver>> driverMap = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, String> sessionIds = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final ThreadLocal<String> currentScope = new ThreadLocal<>();
     private static AppiumDriverLocalService appiumService;
     private static UiAutomator2Options androidOptions;
     private static Capabilities caps;
     private static XCUITestOptions iosOptions;
+    private static DriverPool driverPool;
+    private static final ExecutorService launchExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "browser-launcher");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public static WebDriver getDriver(String browserType) {
-        driverMap.computeIfAbsent(browserType, BrowserFactory::createDriver);
-        return driverMap.get(browserType);
+        return getDriver(getScope(), browserType);
     }
 
+    // Also tags the calling thread's log context with the browser and session it is now driving.
+    // The map only holds a future per key, so the browser is launched (or checked out of the pool) outside
+    // the map's lock; other callers for the same key wait on that future, other keys are not held up.
+    public static WebDriver getDriver(String scope, String browserType) {
+        WebDriver driver = startDriver(scopeKey(scope, browserType), browserType);
+        ThreadContext.put("browser", browserType.toLowerCase());
+        String sessionId = sessionIds.get(driver);
+        if (sessionId != null) {
+            ThreadContext.put("session", sessionId);
+        }
+        return driver;
+    }
+
+    // Bind the calling thread to a scenario so getDriver() hands out that scenario's sessions;
+    // the scope is also the "scenario" key of the log context
+    public static void setScope(String scope) {
+        currentScope.set(scope);
+        ThreadContext.put("scenario", scope);
+    }
+
+    public static String getScope() {
+        String scope = currentScope.get();
+        return scope != null ? scope : "thread-" + Thread.currentThread().getId();
+    }
+
+    // True once setScope() bound this thread, e.g. by ScheduledCucumberRunner before the scenario's hooks run
+    public static boolean hasScope() {
+        return currentScope.get() != null;
+    }
+
+    public static void clearScope() {
+        currentScope.remove();
+        ThreadContext.removeAll(Arrays.asList("scenario", "browser", "session"));
+    }
+
+    // Structured context for scenarios that drive several users at once, e.g. SFU/MCU two-user joins
+    public static BrowserContext openContext(String name) {
+        return new BrowserContext(getScope() + "/" + name);
+    }
+
+    private static WebDriver startDriver(String key, String browserType) {
+        CompletableFuture<WebDriver> pending = new CompletableFuture<>();
+        CompletableFuture<WebDriver> existing = driverMap.putIfAbsent(key, pending);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        WebDriver driver;
+        try {
+            driver = acquireDriver(browserType);
+        } catch (RuntimeException | Error e) {
+            driverMap.remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        pending.complete(driver);
+        return driver;
+    }
+
+    // The session behind a map entry, or null while it is still starting or when it failed to start
+    private static WebDriver started(CompletableFuture<WebDriver> future) {
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    // Releases the session of a removed entry; one still starting is released as soon as it is up
+    private static void release(CompletableFuture<WebDriver> future) {
+        if (future.isDone()) {
+            WebDriver driver = started(future);
+            if (driver != null) {
+                releaseDriver(driver);
+            }
+        } else {
+            future.thenAccept(BrowserFactory::releaseDriver);
+        }
+    }
+
+    private static String scopeKey(String scope, String browserType) {
+        return scope + "|" + browserType.toLowerCase();
+    }
+
+    private static WebDriver acquireDriver(String browserType) {
+        return ConfigManager.getBoolean("DRIVER_POOL", false) ? getDriverPool().checkout(browserType) : createDriver(browserType);
+    }
+
+    private static void releaseDriver(WebDriver driver) {
+        DriverPool pool = driverPool;
+        if (pool != null && pool.owns(driver)) {
+            pool.checkin(driver);
+        } else {
+            quitSession(driver);
+        }
+    }
+
+    // Quits a session started by createDriver and frees what was tracked for it (profile copy, Grid slot,
+    // shared service slot, metrics tags), also when quit() throws
+    static void quitSession(WebDriver driver) {
+        try {
+            driver.quit();
+        } finally {
+            BrowserProfile.release(driver);
+            GridSessions.release(driver);
+            DriverServices.release(driver);
+            CommandMetrics.release(driver);
+        }
+    }
+
+    // Quits a session handed out by getDriver() wherever it is used; pooled sessions are discarded
+    public static void quitDriver(WebDriver driver) {
+        driverMap.values().removeIf(owned -> started(owned) == driver);
+        DriverPool pool = driverPool;
+        if (pool != null && pool.owns(driver)) {
+            pool.invalidate(driver);
+        } else {
+            quitSession(driver);
+        }
+    }
+
+    // The driver session underneath the COMMAND_METRICS instrumentation, for casts to ChromeDriver,
+    // RemoteWebDriver (getSessionId()) or HasCdp; returns the driver itself when it is not instrumented
+    public static WebDriver unwrap(WebDriver driver) {
+        return CommandMetrics.unwrap(driver);
+    }
+
+    // BROWSER_PROFILE (see BrowserProfile) adds headless/eager/blocking settings on top of the fake-media options.
+    // With GRID_URLS set desktop sessions are created on the Grid (see GridSessions); profile templates are
+    // local directories, so they are not used remotely.
     private static WebDriver createDriver(String browserType) {
         WebDriver driver = null;
+        BrowserProfile profile = BrowserProfile.current();
+        boolean remote = GridSessions.isEnabled();
+        Path profileDirectory = null;
+        String sessionId;
         try {
             switch (browserType.toLowerCase()) {
                 case "chrome":
                     ChromeOptions chromeOptions = new ChromeOptions();
                     chromeOptions.addArguments("--use-fake-ui-for-media-stream", "--use-fake-device-for-media-stream");
-                    chromeOptions.setPageLoadStrategy(org.openqa.selenium.PageLoadStrategy.NORMAL);
-                    driver = new ChromeDriver(chromeOptions);
+                    profileDirectory = remote ? null : profile.copyTemplate("chrome");
+                    profile.apply(chromeOptions, profileDirectory);
+                    if (remote) {
+                        driver = GridSessions.open(chromeOptions);
+                    } else {
+                        driver = DriverServices.isReuseEnabled("chrome") ? DriverServices.openSession("chrome", chromeOptions)
+                                : new ChromeDriver(DriverServices.newChromeService(), chromeOptions);
+                    }
                     break;
                 case "safari":
                     SafariOptions safariOptions = new SafariOptions();
-                    safariOptions.setPageLoadStrategy(org.openqa.selenium.PageLoadStrategy.NORMAL);
-                    driver = new SafariDriver(safariOptions);
+                    profile.apply(safariOptions);
+                    driver = remote ? GridSessions.open(safariOptions) : new SafariDriver(safariOptions);
                     break;
                 case "firefox":
                     FirefoxOptions firefoxOptions = new FirefoxOptions();
@@ -67,13 +228,21 @@ public class BrowserFactory {
                     firefoxOptions.addPreference("media.navigator.enabled", true);
                     firefoxOptions.addPreference("media.navigator.permission.disabled", true);
                     firefoxOptions.addPreference("media.navigator.streams.fake", true);
-                    firefoxOptions.setPageLoadStrategy(org.openqa.selenium.PageLoadStrategy.NORMAL);
-                    driver = new FirefoxDriver(firefoxOptions);
+                    profileDirectory = remote ? null : profile.copyTemplate("firefox");
+                    profile.apply(firefoxOptions, profileDirectory);
+                    driver = remote ? GridSessions.open(firefoxOptions)
+                            : new FirefoxDriver(DriverServices.newFirefoxService(), firefoxOptions);
                     break;
                 case "edge":
                     EdgeOptions edgeOptions = new EdgeOptions();
-                    edgeOptions.setPageLoadStrategy(org.openqa.selenium.PageLoadStrategy.NORMAL);
-                    driver = new EdgeDriver(edgeOptions);
+                    profileDirectory = remote ? null : profile.copyTemplate("edge");
+                    profile.apply(edgeOptions, profileDirectory);
+                    if (remote) {
+                        driver = GridSessions.open(edgeOptions);
+                    } else {
+                        driver = DriverServices.isReuseEnabled("edge") ? DriverServices.openSession("edge", edgeOptions)
+                                : new EdgeDriver(DriverServices.newEdgeService(), edgeOptions);
+                    }
                     break;
                 case "android":
                     driver = createMobileDriver("android", getAndroidDevice());
@@ -84,12 +253,35 @@ public class BrowserFactory {
                 default:
                     throw new IllegalArgumentException("Unsupported browser/platform: " + browserType);
             }
+            profile.afterStart(driver);
+            caps = ((RemoteWebDriver) driver).getCapabilities();
+            SessionId session = ((RemoteWebDriver) driver).getSessionId();
+            sessionId = session == null ? null : session.toString();
+            log.info("Started {} {} session {}", caps.getBrowserName(), caps.getBrowserVersion(), sessionId);
         } catch (Exception e) {
-            System.out.println(e.getMessage());
+            log.error("Failed to start {}: {}", browserType, e.getMessage());
+            if (driver != null) {
+                // Started but not usable: free its Grid slot and shared service slot too
+                try {
+                    quitSession(driver);
+                } catch (RuntimeException quitError) {
+                    e.addSuppressed(quitError);
+                }
+            }
+            BrowserProfile.delete(profileDirectory);
             throw new RuntimeException("Failed to set up browser", e);
         }
-        caps = ((RemoteWebDriver) driver).getCapabilities();
-        System.out.println("------------ Platform: " + caps.getBrowserName() + "\tVersion: " + caps.getBrowserVersion() + " -----------");
+        // Mobile drivers stay undecorated so callers can keep casting them to AndroidDriver/IOSDriver
+        WebDriver created = driver;
+        if (CommandMetrics.isEnabled() && !(driver instanceof AppiumDriver)) {
+            driver = CommandMetrics.decorate(driver, browserType.toLowerCase());
+        }
+        BrowserProfile.track(driver, profileDirectory);
+        GridSessions.alias(created, driver);
+        DriverServices.alias(created, driver);
+        if (sessionId != null) {
+            sessionIds.put(driver, sessionId);
+        }
         return driver;
     }
 
@@ -103,17 +295,22 @@ public class BrowserFactory {
             androidOptions.setChromedriverExecutable("drivers/chrome/chromedriver");
             androidOptions.setDeviceName(deviceName);
             androidOptions.setCapability(ChromeOptions.CAPABILITY, chromeOptions);
-            driver = new AndroidDriver(new URI("http://127.0.0.1:4723").toURL(), androidOptions);
+            driver = new AndroidDriver(appiumUrl(), androidOptions);
 
         } else if (platform.equalsIgnoreCase("ios")) {
             iosOptions = new XCUITestOptions();
             iosOptions.withBrowserName("Safari");
             iosOptions.setUdid(deviceName);
-            driver = new IOSDriver(new URI("http://127.0.0.1:4723").toURL(), iosOptions);
+            driver = new IOSDriver(appiumUrl(), iosOptions);
         }
         return driver;
     }
 
+    // APPIUM_URL points at a remote or non-default Appium server (default http://127.0.0.1:4723)
+    private static URL appiumUrl() throws URISyntaxException, MalformedURLException {
+        return new URI(ConfigManager.getString("APPIUM_URL", "http://127.0.0.1:4723")).toURL();
+    }
+
     public static String getAndroidDevice() {
         return getPropertyValue("ANDROID-DEVICE");
     }
@@ -123,32 +320,73 @@ public class BrowserFactory {
     }
 
     private static String getPropertyValue(String property) {
-        String value = null;
-        try {
-            Properties properties = new Properties();
-            FileInputStream file = new FileInputStream("src/test/resources/config.properties");
-            properties.load(file);
-            value = properties.getProperty(property).toLowerCase().trim();
-        } catch (IOException ex) {
-            System.out.println(ex.getMessage());
-        }
-        return value;
+        String value = ConfigManager.getString(property);
+        return value == null ? null : value.toLowerCase();
     }
 
     public static void cleanupDriver(String browserType) {
-        WebDriver driver = driverMap.remove(browserType);
+        cleanupDriver(getScope(), browserType);
+    }
+
+    public static void cleanupDriver(String scope, String browserType) {
+        CompletableFuture<WebDriver> driver = driverMap.remove(scopeKey(scope, browserType));
         if (driver != null) {
-            driver.quit();
+            release(driver);
         }
     }
 
+    // Release every session owned by the scope, including sessions of nested contexts
+    public static void cleanupScope(String scope) {
+        for (String key : driverMap.keySet()) {
+            if (key.startsWith(scope + "|") || key.startsWith(scope + "/")) {
+                CompletableFuture<WebDriver> driver = driverMap.remove(key);
+                if (driver != null) {
+                    release(driver);
+                }
+            }
+        }
+        CommandMetrics.endScenario(scope);
+    }
+
     public static void cleanupAllDrivers() {
-        driverMap.forEach((browserType, driver) -> {
+        for (String key : driverMap.keySet()) {
+            CompletableFuture<WebDriver> driver = driverMap.remove(key);
             if (driver != null) {
-                driver.quit();
+                release(driver);
             }
-        });
-        driverMap.clear();
+        }
+    }
+
+    // Borrow a warm session from the pool; return it with checkinDriver() instead of quitting it
+    public static WebDriver checkoutDriver(String browserType) {
+        return getDriverPool().checkout(browserType);
+    }
+
+    public static void checkinDriver(WebDriver driver) {
+        getDriverPool().checkin(driver);
+    }
+
+    // Start sessions ahead of the first scenario, e.g. from a @BeforeSuite hook
+    public static void warmDriverPool(String browserType, int count) {
+        getDriverPool().warmUp(browserType, count);
+    }
+
+    public static synchronized DriverPool getDriverPool() {
+        if (driverPool == null) {
+            driverPool = new DriverPool(BrowserFactory::createDriver,
+                    ConfigManager.getInt("DRIVER_POOL_SIZE", Runtime.getRuntime().availableProcessors()),
+                    Duration.ofMinutes(ConfigManager.getLong("DRIVER_POOL_MAX_AGE_MINUTES", 30L)),
+                    Duration.ofMinutes(ConfigManager.getLong("DRIVER_POOL_WAIT_MINUTES", 5L)));
+        }
+        return driverPool;
+    }
+
+    public static synchronized void shutdownDriverPool() {
+        if (driverPool != null) {
+            log.info("Shutting down driver pool: {}", driverPool);
+            driverPool.shutdown();
+            driverPool = null;
+        }
     }
 
     // Method to start the Appium service
@@ -172,33 +410,73 @@ public class BrowserFactory {
     }
 
     public static void openBrowsers(String[] browserTypes, String[] urls) {
+        for (BrowserLaunch.Result result : openBrowsersAsync(browserTypes, urls, Duration.ofMinutes(5)).awaitAll()) {
+            log.info("Browser opened: {}", result);
+        }
+        log.info("Opened {} browser(s)", browserTypes.length);
+    }
+
+    // Launches and navigates every browser concurrently without blocking the caller. The first browser
+    // of each type belongs to the caller's scope; a type listed again gets its own participant scope
+    // (as in openContext), so every entry is a separate session. Join them with BrowserLaunch.awaitAll();
+    // launches still running at the deadline are cancelled, and the sessions they started are quit (a session
+    // the caller's scope already had is left alone).
+    public static BrowserLaunch openBrowsersAsync(String[] browserTypes, String[] urls, Duration deadline) {
         if (browserTypes.length != urls.length) {
             throw new IllegalArgumentException("The number of browsers must match the number of URLs.");
         }
 
-        ExecutorService executor = Executors.newFixedThreadPool(browserTypes.length);
-
+        String scope = getScope();
+        Set<String> launchedTypes = new HashSet<>();
+        List<CompletableFuture<BrowserLaunch.Result>> futures = new ArrayList<>(browserTypes.length);
+        List<Runnable> cancellers = new ArrayList<>(browserTypes.length);
         for (int i = 0; i < browserTypes.length; i++) {
             final String browserType = browserTypes[i];
             final String url = urls[i];
-
-            executor.execute(() -> {
-                WebDriver driver = null;
-                try {
-                    driver = getDriver(browserType); // Reuse existing getDriver method
-                    driver.get(url);
-                    System.out.println(browserType + " Driver Current URL: " + driver.getCurrentUrl());
-                } catch (Exception e) {
-                    System.err.println("Error in " + browserType + " thread: " + e.getMessage());
+            final String launchScope = launchedTypes.add(browserType.toLowerCase())
+                    ? scope : scope + "/" + browserType.toLowerCase() + "-" + (i + 1);
+            final boolean created = !driverMap.containsKey(scopeKey(launchScope, browserType));
+            AtomicBoolean cancelled = new AtomicBoolean();
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> launchBrowser(launchScope, browserType, url, created, cancelled), launchExecutor));
+            cancellers.add(() -> {
+                cancelled.set(true);
+                if (created) {
+                    cleanupDriver(launchScope, browserType);
                 }
             });
         }
+        return new BrowserLaunch(browserTypes, urls, futures, cancellers, deadline);
+    }
 
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            // Wait for all threads to complete
+    // Runs on a pooled launcher thread, so the log context it sets up (including the browser and session
+    // keys getDriver adds) is removed again before the thread picks up the next launch
+    private static BrowserLaunch.Result launchBrowser(String scope, String browserType, String url,
+                                                      boolean created, AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        Duration launchTime = Duration.ZERO;
+        ThreadContext.put("scenario", scope);
+        try {
+            WebDriver driver = getDriver(scope, browserType);
+            launchTime = Duration.ofNanos(System.nanoTime() - start);
+            if (cancelled.get()) {
+                // The caller gave up while the session was starting, so quit it instead of handing it over
+                if (created) {
+                    cleanupDriver(scope, browserType);
+                }
+                return BrowserLaunch.Result.failed(browserType, url, new CancellationException(browserType + " launch cancelled"));
+            }
+            long navigationStart = System.nanoTime();
+            driver.get(url);
+            return new BrowserLaunch.Result(browserType, url, driver, launchTime,
+                    Duration.ofNanos(System.nanoTime() - navigationStart), null);
+        } catch (RuntimeException e) {
+            if (cancelled.get() && created) {
+                cleanupDriver(scope, browserType);
+            }
+            return new BrowserLaunch.Result(browserType, url, null, launchTime, Duration.ZERO, e);
+        } finally {
+            ThreadContext.removeAll(Arrays.asList("scenario", "browser", "session"));
         }
-
-        System.out.println("Browser Opened Succefully");
     }
 }
@@ -0,0 +1,158 @@
+package core;
+
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Handle for browsers launched concurrently by BrowserFactory.openBrowsersAsync(). Every browser
+// is launched and navigated on its own future; awaitAll() joins them against one global deadline
+// and cancels the launches that miss it, quitting the sessions they started once they come up.
+public class BrowserLaunch {
+
+    private final String[] browserTypes;
+    private final String[] urls;
+    private final List<CompletableFuture<Result>> futures;
+    private final List<Runnable> cancellers;
+    private final long deadlineNanos;
+
+    BrowserLaunch(String[] browserTypes, String[] urls, List<CompletableFuture<Result>> futures,
+                  List<Runnable> cancellers, Duration deadline) {
+        this.browserTypes = browserTypes.clone();
+        this.urls = urls.clone();
+        this.futures = Collections.unmodifiableList(new ArrayList<>(futures));
+        this.cancellers = new ArrayList<>(cancellers);
+        this.deadlineNanos = System.nanoTime() + deadline.toNanos();
+    }
+
+    public List<CompletableFuture<Result>> getFutures() {
+        return futures;
+    }
+
+    public boolean isDone() {
+        return futures.stream().allMatch(CompletableFuture::isDone);
+    }
+
+    // Waits for every browser until the deadline and returns the results in launch order.
+    // Failures and timeouts are collected and rethrown together as one BrowserLaunchException.
+    public List<Result> awaitAll() {
+        List<Result> results = getResults();
+        List<Result> failed = new ArrayList<>();
+        for (Result result : results) {
+            if (!result.isSuccess()) {
+                failed.add(result);
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new BrowserLaunchException(results, failed);
+        }
+        return results;
+    }
+
+    // Same as awaitAll() but returns failed launches as results instead of throwing
+    public List<Result> getResults() {
+        List<Result> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(await(i));
+        }
+        return results;
+    }
+
+    private Result await(int index) {
+        try {
+            long remaining = Math.max(0L, deadlineNanos - System.nanoTime());
+            return futures.get(index).get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            futures.get(index).cancel(false);
+            cancellers.get(index).run();
+            return Result.failed(browserTypes[index], urls[index],
+                    new TimeoutException(browserTypes[index] + " did not launch before the deadline and was cancelled"));
+        } catch (CancellationException e) {
+            return Result.failed(browserTypes[index], urls[index], e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.failed(browserTypes[index], urls[index], e);
+        } catch (ExecutionException e) {
+            return Result.failed(browserTypes[index], urls[index], e.getCause());
+        }
+    }
+
+    public static class Result {
+        private final String browserType;
+        private final String url;
+        private final WebDriver driver;
+        private final Duration launchTime;
+        private final Duration navigationTime;
+        private final Throwable error;
+
+        Result(String browserType, String url, WebDriver driver, Duration launchTime, Duration navigationTime, Throwable error) {
+            this.browserType = browserType;
+            this.url = url;
+            this.driver = driver;
+            this.launchTime = launchTime;
+            this.navigationTime = navigationTime;
+            this.error = error;
+        }
+
+        static Result failed(String browserType, String url, Throwable error) {
+            return new Result(browserType, url, null, Duration.ZERO, Duration.ZERO, error);
+        }
+
+        public String getBrowserType() {
+            return browserType;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public WebDriver getDriver() {
+            return driver;
+        }
+
+        public Duration getLaunchTime() {
+            return launchTime;
+        }
+
+        public Duration getNavigationTime() {
+            return navigationTime;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            return browserType + " [" + url + "] launch=" + launchTime.toMillis() + "ms, navigation="
+                    + navigationTime.toMillis() + "ms" + (error == null ? "" : ", error=" + error);
+        }
+    }
+
+    public static class BrowserLaunchException extends RuntimeException {
+        private final List<Result> results;
+
+        BrowserLaunchException(List<Result> results, List<Result> failed) {
+            super(failed.size() + " of " + results.size() + " browsers failed to launch: " + failed);
+            this.results = results;
+            for (Result result : failed) {
+                addSuppressed(result.getError());
+            }
+        }
+
+        public List<Result> getResults() {
+            return results;
+        }
+    }
+}
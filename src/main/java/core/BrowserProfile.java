@@ -0,0 +1,232 @@
+package core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.remote.AbstractDriverOptions;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+// Launch settings applied on top of the fake-media options BrowserFactory always sets.
+//   BROWSER_PROFILE=standard (default)  headed, NORMAL page load, fresh profile: unchanged behaviour
+//   BROWSER_PROFILE=fast                headless, EAGER page load, images/fonts/analytics blocked
+// Individual settings can be overridden with HEADLESS, PAGE_LOAD_STRATEGY (normal/eager/none),
+// BLOCK_RESOURCES and BLOCKED_URLS (comma-separated patterns, '*' wildcards).
+// PROFILE_TEMPLATE_DIR points to pre-warmed profiles in <dir>/chrome, <dir>/edge and <dir>/firefox;
+// each session gets its own copy, which is deleted when the session is quit.
+public class BrowserProfile {
+
+    private static final Logger log = LogManager.getLogger(BrowserProfile.class);
+
+    private static final List<String> DEFAULT_BLOCKED_URLS = Arrays.asList(
+            "*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.ico",
+            "*.woff", "*.woff2", "*.ttf", "*.otf",
+            "*google-analytics.com*", "*googletagmanager.com*", "*doubleclick.net*",
+            "*segment.io*", "*hotjar.com*", "*mixpanel.com*");
+
+    // Lock files a running browser leaves behind; copying them makes the clone look in use
+    private static final Set<String> LOCK_FILES = Set.of(
+            "SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile", "parent.lock", "lock", ".parentlock");
+
+    private static final Map<WebDriver, Path> profileCopies = Collections.synchronizedMap(new WeakHashMap<>());
+    private static volatile Path copyRoot;
+
+    private final String name;
+    private final boolean headless;
+    private final PageLoadStrategy pageLoadStrategy;
+    private final boolean blockResources;
+    private final List<String> blockedUrls;
+    private final Path templateDirectory;
+
+    private BrowserProfile(String name, boolean headless, PageLoadStrategy pageLoadStrategy, boolean blockResources,
+                           List<String> blockedUrls, Path templateDirectory) {
+        this.name = name;
+        this.headless = headless;
+        this.pageLoadStrategy = pageLoadStrategy;
+        this.blockResources = blockResources;
+        this.blockedUrls = blockedUrls;
+        this.templateDirectory = templateDirectory;
+    }
+
+    public static BrowserProfile current() {
+        String name = ConfigManager.getString("BROWSER_PROFILE", "standard").toLowerCase();
+        boolean fast = "fast".equals(name);
+        if (!fast && !"standard".equals(name)) {
+            throw new IllegalArgumentException("Unsupported BROWSER_PROFILE: " + name + " (expected standard or fast)");
+        }
+        PageLoadStrategy strategy = PageLoadStrategy.fromString(
+                ConfigManager.getString("PAGE_LOAD_STRATEGY", fast ? "eager" : "normal").toLowerCase());
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unsupported PAGE_LOAD_STRATEGY: " + ConfigManager.getString("PAGE_LOAD_STRATEGY"));
+        }
+        List<String> blocked = ConfigManager.getList("BLOCKED_URLS");
+        String template = ConfigManager.getString("PROFILE_TEMPLATE_DIR");
+        return new BrowserProfile(name,
+                ConfigManager.getBoolean("HEADLESS", fast),
+                strategy,
+                ConfigManager.getBoolean("BLOCK_RESOURCES", fast),
+                blocked.isEmpty() ? DEFAULT_BLOCKED_URLS : blocked,
+                template == null || template.isEmpty() ? null : Paths.get(template));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public PageLoadStrategy getPageLoadStrategy() {
+        return pageLoadStrategy;
+    }
+
+    // Copies the browser's template into a private directory, or returns null when there is none
+    public Path copyTemplate(String browserType) throws IOException {
+        if (templateDirectory == null) {
+            return null;
+        }
+        Path template = templateDirectory.resolve(browserType.toLowerCase());
+        if (!Files.isDirectory(template)) {
+            return null;
+        }
+        Path copy = Files.createTempDirectory(copyRoot(), browserType.toLowerCase() + "-");
+        Files.walkFileTree(template, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(copy.resolve(template.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!LOCK_FILES.contains(file.getFileName().toString())) {
+                    Files.copy(file, copy.resolve(template.relativize(file).toString()), StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return copy;
+    }
+
+    // Chrome and Edge
+    public void apply(ChromiumOptions<?> options, Path profileDirectory) {
+        options.setPageLoadStrategy(pageLoadStrategy);
+        if (headless) {
+            options.addArguments("--headless=new", "--window-size=1920,1080");
+        }
+        if (blockResources) {
+            Map<String, Object> prefs = new HashMap<>();
+            prefs.put("profile.managed_default_content_settings.images", 2);
+            options.setExperimentalOption("prefs", prefs);
+        }
+        if (profileDirectory != null) {
+            options.addArguments("--user-data-dir=" + profileDirectory.toAbsolutePath());
+        }
+    }
+
+    public void apply(FirefoxOptions options, Path profileDirectory) {
+        options.setPageLoadStrategy(pageLoadStrategy);
+        if (headless) {
+            options.addArguments("-headless");
+        }
+        if (blockResources) {
+            // geckodriver has no CDP; Firefox prefs cover images and web fonts, analytics stay unblocked
+            options.addPreference("permissions.default.image", 2);
+            options.addPreference("browser.display.use_document_fonts", 0);
+        }
+        if (profileDirectory != null) {
+            options.addArguments("-profile", profileDirectory.toAbsolutePath().toString());
+        }
+    }
+
+    // Safari only supports the page load strategy
+    public void apply(AbstractDriverOptions<?> options) {
+        options.setPageLoadStrategy(pageLoadStrategy);
+    }
+
+    // URL blocking for Chromium sessions; must run on the undecorated driver so HasCdp is visible.
+    // The CDP commands reach only the window the driver is switched to, so at session start that is the
+    // initial tab: new windows and popups load everything. Call this again after switching to one to
+    // block there too.
+    public void afterStart(WebDriver driver) {
+        if (blockResources && driver instanceof HasCdp) {
+            try {
+                HasCdp cdp = (HasCdp) driver;
+                cdp.executeCdpCommand("Network.enable", Collections.emptyMap());
+                cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", blockedUrls));
+            } catch (RuntimeException e) {
+                log.warn("Unable to block resources for {} profile: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    // Remembers the session's profile copy so release() can delete it after quit
+    static void track(WebDriver driver, Path profileDirectory) {
+        if (profileDirectory != null) {
+            profileCopies.put(driver, profileDirectory);
+        }
+    }
+
+    static void release(WebDriver driver) {
+        delete(profileCopies.remove(driver));
+    }
+
+    static void delete(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Unable to delete browser profile {}: {}", directory, e.getMessage());
+        }
+    }
+
+    // One temp root per run; whatever is left in it (e.g. pooled sessions) is removed at shutdown
+    private static Path copyRoot() throws IOException {
+        Path root = copyRoot;
+        if (root == null) {
+            synchronized (BrowserProfile.class) {
+                root = copyRoot;
+                if (root == null) {
+                    root = Files.createTempDirectory("browser-profiles-");
+                    Path created = root;
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> delete(created), "browser-profile-cleanup"));
+                    copyRoot = root;
+                }
+            }
+        }
+        return root;
+    }
+}
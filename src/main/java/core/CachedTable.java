@@ -0,0 +1,134 @@
+package core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Read-only view of a compiled test-data table written by DataCache. Values are read straight
+// from the memory-mapped file; only the returned Strings are allocated.
+public class CachedTable {
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int presentRowCount;
+    private final int rowFlagsOffset;
+    private final int rowOffsetsOffset;
+    private final int cellsOffset;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+
+    CachedTable(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.presentRowCount = buffer.getInt(DataCache.PRESENT_ROWS_POS);
+        this.rowCount = buffer.getInt(DataCache.ROWS_POS);
+        int cellCount = buffer.getInt(DataCache.CELLS_POS);
+        int stringCount = buffer.getInt(DataCache.STRINGS_POS);
+        this.rowFlagsOffset = DataCache.HEADER_SIZE;
+        this.rowOffsetsOffset = rowFlagsOffset + rowCount;
+        this.cellsOffset = rowOffsetsOffset + (rowCount + 1) * 4;
+        this.stringOffsetsOffset = cellsOffset + cellCount * 4;
+        this.stringDataOffset = stringOffsetsOffset + (stringCount + 1) * 4;
+    }
+
+    // Number of row slots, including rows that were missing in the source
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    // Number of rows that exist in the source (Sheet.getPhysicalNumberOfRows for Excel)
+    public int getPresentRowCount() {
+        return presentRowCount;
+    }
+
+    public boolean isRowPresent(int row) {
+        return row >= 0 && row < rowCount && buffer.get(rowFlagsOffset + row) != 0;
+    }
+
+    public int getColumnCount(int row) {
+        if (row < 0 || row >= rowCount) {
+            return 0;
+        }
+        return rowOffset(row + 1) - rowOffset(row);
+    }
+
+    public String getCell(int row, int col) {
+        int id = stringId(row, col);
+        if (id < 0) {
+            return null;
+        }
+        int start = stringOffset(id);
+        byte[] bytes = new byte[stringOffset(id + 1) - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringDataOffset + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Compares a cell's UTF-8 bytes with the key without decoding it; null cells sort first
+    int compareCell(int row, int col, byte[] key) {
+        int id = stringId(row, col);
+        if (id < 0) {
+            return -1;
+        }
+        int start = stringDataOffset + stringOffset(id);
+        int length = stringOffset(id + 1) - stringOffset(id);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - key.length;
+    }
+
+    boolean cellStartsWith(int row, int col, byte[] prefix) {
+        int id = stringId(row, col);
+        if (id < 0) {
+            return false;
+        }
+        int start = stringDataOffset + stringOffset(id);
+        if (stringOffset(id + 1) - stringOffset(id) < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // First row whose cell in col is >= key, for tables written sorted on that column
+    int lowerBound(int col, byte[] key) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareCell(mid, col, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int stringId(int row, int col) {
+        if (row < 0 || row >= rowCount || col < 0) {
+            return -1;
+        }
+        int first = rowOffset(row);
+        if (col >= rowOffset(row + 1) - first) {
+            return -1;
+        }
+        return buffer.getInt(cellsOffset + (first + col) * 4);
+    }
+
+    private int rowOffset(int row) {
+        return buffer.getInt(rowOffsetsOffset + row * 4);
+    }
+
+    private int stringOffset(int id) {
+        return buffer.getInt(stringOffsetsOffset + id * 4);
+    }
+}
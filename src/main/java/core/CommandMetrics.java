@@ -0,0 +1,248 @@
+package core;
+
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Per-command WebDriver latency, recorded by a WebDriverListener that BrowserFactory attaches to
+// every desktop driver when COMMAND_METRICS=true (default false). Histograms are tagged by browser,
+// scenario (the BrowserFactory scope) and command. When a scenario ends (BrowserFactory.cleanupScope)
+// its histograms are folded into per browser/command totals and only its summary rows are kept.
+// Instrumented drivers are EventFiringDecorator proxies, so they cannot be cast to ChromeDriver or
+// RemoteWebDriver; unwrap() returns the driver underneath.
+public class CommandMetrics implements WebDriverListener {
+
+    // browser -> scenario -> command -> histogram, for scenarios that have not ended yet
+    private static final Map<String, Map<String, Map<String, LatencyHistogram>>> registry = new ConcurrentHashMap<>();
+    // browser -> command -> histogram of ended scenarios
+    private static final Map<String, Map<String, LatencyHistogram>> totals = new ConcurrentHashMap<>();
+    private static final Queue<String[]> endedRows = new ConcurrentLinkedQueue<>();
+    // decorated driver -> browser and undecorated driver; removed by release() after quit
+    private static final Map<WebDriver, Instrumented> instrumented = new ConcurrentHashMap<>();
+    private static final ThreadLocal<long[]> startTimes = ThreadLocal.withInitial(() -> new long[16]);
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final Map<String, Map<String, LatencyHistogram>> scenarios;
+
+    private CommandMetrics(String browser) {
+        this.scenarios = registry.computeIfAbsent(browser, b -> new ConcurrentHashMap<>());
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBoolean("COMMAND_METRICS", false);
+    }
+
+    public static WebDriver decorate(WebDriver driver, String browser) {
+        WebDriver proxy = new EventFiringDecorator<WebDriver>(new CommandMetrics(browser)).decorate(driver);
+        instrumented.put(proxy, new Instrumented(browser, driver));
+        return proxy;
+    }
+
+    // The driver underneath an instrumented proxy, or the driver itself when it is not instrumented
+    public static WebDriver unwrap(WebDriver driver) {
+        Instrumented entry = instrumented.get(driver);
+        return entry == null ? driver : entry.original;
+    }
+
+    // Called after quit
+    static void release(WebDriver driver) {
+        instrumented.remove(driver);
+    }
+
+    // Records a framework-level operation (e.g. an explicit wait) against the driver's browser
+    public static void record(WebDriver driver, String command, long nanos) {
+        Instrumented entry = instrumented.get(driver);
+        if (entry != null) {
+            histogram(registry.computeIfAbsent(entry.browser, b -> new ConcurrentHashMap<>()), command).record(nanos);
+        }
+    }
+
+    // Folds the histograms of the scope and its nested contexts into the per browser/command totals
+    public static void endScenario(String scope) {
+        registry.forEach((browser, scenarios) -> scenarios.keySet().removeIf(scenario -> {
+            if (!scenario.equals(scope) && !scenario.startsWith(scope + "/")) {
+                return false;
+            }
+            Map<String, LatencyHistogram> commands = scenarios.get(scenario);
+            if (commands != null) {
+                Map<String, LatencyHistogram> browserTotals = totals.computeIfAbsent(browser, b -> new ConcurrentHashMap<>());
+                commands.forEach((command, histogram) -> {
+                    endedRows.add(row(browser, scenario, command, histogram));
+                    browserTotals.computeIfAbsent(command, c -> new LatencyHistogram()).merge(histogram);
+                });
+            }
+            return true;
+        }));
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        int[] level = depth.get();
+        long[] starts = startTimes.get();
+        if (level[0] < starts.length) {
+            starts[level[0]] = System.nanoTime();
+        }
+        level[0]++;
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(method.getName());
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(method.getName() + ":error");
+    }
+
+    private void finish(String command) {
+        long end = System.nanoTime();
+        int[] level = depth.get();
+        if (level[0] == 0) {
+            return;
+        }
+        level[0]--;
+        if (level[0] < startTimes.get().length) {
+            histogram(scenarios, command).record(end - startTimes.get()[level[0]]);
+        }
+    }
+
+    private static LatencyHistogram histogram(Map<String, Map<String, LatencyHistogram>> scenarios, String command) {
+        Map<String, LatencyHistogram> commands = scenarios.get(BrowserFactory.getScope());
+        if (commands == null) {
+            commands = scenarios.computeIfAbsent(BrowserFactory.getScope(), s -> new ConcurrentHashMap<>());
+        }
+        LatencyHistogram histogram = commands.get(command);
+        return histogram != null ? histogram : commands.computeIfAbsent(command, c -> new LatencyHistogram());
+    }
+
+    public static void reset() {
+        registry.clear();
+        totals.clear();
+        endedRows.clear();
+    }
+
+    // One row per browser/scenario/command: count, mean, p50, p95, p99 and max in milliseconds.
+    // Without perScenario the scenario column is "*" and all scenarios are merged.
+    public static List<String[]> getRows(boolean perScenario) {
+        List<String[]> rows = new ArrayList<>();
+        if (perScenario) {
+            rows.addAll(endedRows);
+            registry.forEach((browser, scenarios) -> scenarios.forEach((scenario, commands) -> commands.forEach(
+                    (command, histogram) -> rows.add(row(browser, scenario, command, histogram)))));
+            rows.sort(Comparator.comparing((String[] row) -> row[0]).thenComparing(row -> row[1]).thenComparing(row -> row[2]));
+            return rows;
+        }
+        Map<String, LatencyHistogram> merged = new TreeMap<>();
+        totals.forEach((browser, commands) -> commands.forEach((command, histogram) ->
+                merged.computeIfAbsent(browser + "\t" + command, k -> new LatencyHistogram()).merge(histogram)));
+        registry.forEach((browser, scenarios) -> scenarios.forEach((scenario, commands) -> commands.forEach((command, histogram) ->
+                merged.computeIfAbsent(browser + "\t" + command, k -> new LatencyHistogram()).merge(histogram))));
+        merged.forEach((key, histogram) -> {
+            String[] tags = key.split("\t", 2);
+            rows.add(row(tags[0], "*", tags[1], histogram));
+        });
+        return rows;
+    }
+
+    private static String[] row(String browser, String scenario, String command, LatencyHistogram histogram) {
+        return new String[]{browser, scenario, command, String.valueOf(histogram.getCount()),
+                millis(histogram.getMeanNanos()), millis(histogram.getPercentileNanos(50)),
+                millis(histogram.getPercentileNanos(95)), millis(histogram.getPercentileNanos(99)),
+                millis(histogram.getMaxNanos())};
+    }
+
+    // Adds a summary node with per browser/command latencies (all scenarios merged) to the report. Goes
+    // through ExtentManager like every other report event, so it is also in the journal and merged reports.
+    public static void publishSummary() {
+        if (ExtentManager.extent == null || (registry.isEmpty() && totals.isEmpty())) {
+            return;
+        }
+        ExtentManager.createTest("WebDriver command latency", "Per-command latency in milliseconds");
+        try {
+            publishSummary(false);
+        } finally {
+            ExtentManager.clearTest();
+        }
+    }
+
+    // Logs the latency table to the current thread's test
+    public static void publishSummary(boolean perScenario) {
+        List<String[]> rows = getRows(perScenario);
+        String[][] table = new String[rows.size() + 1][];
+        table[0] = header();
+        for (int i = 0; i < rows.size(); i++) {
+            table[i + 1] = rows.get(i);
+        }
+        ExtentManager.log(Status.INFO, MarkupHelper.createTable(table));
+    }
+
+    public static void exportCsv(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", header()));
+            writer.write('\n');
+            for (String[] row : getRows(true)) {
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write('"' + row[i].replace("\"", "\"\"") + '"');
+                }
+                writer.write('\n');
+            }
+        }
+    }
+
+    public static void exportJson(Path file) throws IOException {
+        String[] header = header();
+        List<Map<String, String>> records = new ArrayList<>();
+        for (String[] row : getRows(true)) {
+            Map<String, String> record = new LinkedHashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                record.put(header[i], row[i]);
+            }
+            records.add(record);
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        JsonUtils.getMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), records);
+    }
+
+    private static String[] header() {
+        return new String[]{"browser", "scenario", "command", "count", "meanMs", "p50Ms", "p95Ms", "p99Ms", "maxMs"};
+    }
+
+    private static String millis(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static class Instrumented {
+        private final String browser;
+        private final WebDriver original;
+
+        Instrumented(String browser, WebDriver original) {
+            this.browser = browser;
+            this.original = original;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Central configuration. config.properties is read once into an immutable snapshot with environment
+// variables layered on top. System properties win over both and are read live on every lookup, so a
+// System.setProperty() during the run applies at once.
+// Lookups never touch the disk; reload() or hot reload swap in a new snapshot atomically.
+public class ConfigManager {
+
+    private static final Logger log = LogManager.getLogger(ConfigManager.class);
+
+    public static final String DEFAULT_CONFIG_FILE = "src/test/resources/config.properties";
+
+    private static final AtomicReference<Map<String, String>> snapshot = new AtomicReference<>();
+    private static WatchService watchService;
+
+    private ConfigManager() {
+    }
+
+    public static String getString(String key) {
+        String system = System.getProperty(key);
+        return system != null ? system.trim() : snapshot().get(key);
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = getString(key);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key);
+        try {
+            return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Config value " + key + "=" + value + " is not an integer", e);
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key);
+        try {
+            return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Config value " + key + "=" + value + " is not a number", e);
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key);
+        return value == null || value.isEmpty() ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    // Comma separated values, trimmed, empty entries dropped
+    public static List<String> getList(String key) {
+        String value = getString(key);
+        if (value == null || value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    public static Path getConfigFile() {
+        String file = System.getProperty("CONFIG_FILE", System.getenv().getOrDefault("CONFIG_FILE", DEFAULT_CONFIG_FILE));
+        return Paths.get(file);
+    }
+
+    // Re-reads the config file and re-captures environment variables
+    public static void reload() {
+        snapshot.set(load());
+    }
+
+    // Watches the config file and swaps in a fresh snapshot whenever it changes
+    public static synchronized void enableHotReload() {
+        if (watchService != null) {
+            return;
+        }
+        Path file = getConfigFile().toAbsolutePath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to watch " + file, e);
+        }
+        WatchService service = watchService;
+        Thread watcher = new Thread(() -> watch(service, file), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public static synchronized void disableHotReload() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Error closing config watcher: {}", e.getMessage());
+            }
+            watchService = null;
+        }
+    }
+
+    private static void watch(WatchService service, Path file) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // watcher stopped
+        }
+    }
+
+    private static Map<String, String> snapshot() {
+        Map<String, String> current = snapshot.get();
+        if (current == null) {
+            snapshot.compareAndSet(null, load());
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private static Map<String, String> load() {
+        Map<String, String> values = new HashMap<>();
+        Path file = getConfigFile();
+        if (Files.isRegularFile(file)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                log.warn("Unable to read {}: {}", file, e.getMessage());
+            }
+            properties.stringPropertyNames().forEach(name -> values.put(name, properties.getProperty(name).trim()));
+        }
+
+        // Environment variables override the file, either verbatim or in ENV_STYLE (ANDROID-DEVICE -> ANDROID_DEVICE)
+        Map<String, String> env = System.getenv();
+        for (String name : new ArrayList<>(values.keySet())) {
+            String envValue = env.get(toEnvName(name));
+            if (envValue != null) {
+                values.put(name, envValue.trim());
+            }
+        }
+        env.forEach((name, value) -> values.put(name, value.trim()));
+        return Collections.unmodifiableMap(values);
+    }
+
+    private static String toEnvName(String key) {
+        return key.toUpperCase().replace('-', '_').replace('.', '_');
+    }
+}
@@ -0,0 +1,232 @@
+package core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compiled, memory-mapped cache for test-data sources (.xlsx sheets, .json files). The first load
+// of a source writes a compact binary table (string table plus row/column offsets); later loads,
+// also from other JVM forks, map that file instead of parsing the source again.
+//
+// A cache entry is keyed by the source path and a variant (e.g. the sheet name) and stores the
+// source mtime, size and SHA-256. When mtime or size differ the content hash decides whether the
+// entry is still valid; otherwise the table is recompiled and atomically replaced.
+//
+// Layout: header | row flags (byte per row) | row offsets (int[rows + 1]) | cells (string ids,
+// -1 for null) | string offsets (int[strings + 1]) | UTF-8 string data.
+public class DataCache {
+
+    private static final Logger log = LogManager.getLogger(DataCache.class);
+
+    static final int MAGIC = 0x4C534443;
+    static final int VERSION = 1;
+    static final int MTIME_POS = 8;
+    static final int SIZE_POS = 16;
+    static final int HASH_POS = 24;
+    static final int PRESENT_ROWS_POS = 56;
+    static final int ROWS_POS = 60;
+    static final int CELLS_POS = 64;
+    static final int STRINGS_POS = 68;
+    static final int HEADER_SIZE = 72;
+
+    // Produces the table rows for a source; a null row marks a row missing in the source
+    public interface TableCompiler {
+        List<String[]> compile() throws IOException;
+    }
+
+    private DataCache() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBoolean("DATA_CACHE", false);
+    }
+
+    public static Path getCacheDirectory() {
+        return Paths.get(ConfigManager.getString("DATA_CACHE_DIR", "build/data-cache"));
+    }
+
+    public static CachedTable load(String sourcePath, String variant, TableCompiler compiler) throws IOException {
+        Path source = Paths.get(sourcePath).toAbsolutePath();
+        long mtime = Files.getLastModifiedTime(source).toMillis();
+        long size = Files.size(source);
+        Path cacheFile = getCacheDirectory().resolve(hex(sha256((source + "#" + variant).getBytes(StandardCharsets.UTF_8))).substring(0, 32) + ".bin");
+
+        byte[] contentHash = null;
+        if (Files.isRegularFile(cacheFile)) {
+            try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                if (channel.read(header, 0) == HEADER_SIZE && header.getInt(0) == MAGIC && header.getInt(4) == VERSION) {
+                    if (header.getLong(MTIME_POS) == mtime && header.getLong(SIZE_POS) == size) {
+                        return map(channel);
+                    }
+                    contentHash = hashFile(source);
+                    byte[] cachedHash = new byte[32];
+                    header.position(HASH_POS);
+                    header.get(cachedHash);
+                    if (Arrays.equals(contentHash, cachedHash)) {
+                        // Source was touched but not changed: keep the table and refresh the stamp
+                        refreshStamp(cacheFile, mtime, size);
+                        return map(channel);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable data cache {}: {}", cacheFile, e.getMessage());
+            }
+        }
+
+        if (contentHash == null) {
+            contentHash = hashFile(source);
+        }
+        Path written = write(cacheFile, compiler.compile(), mtime, size, contentHash);
+        try (FileChannel channel = FileChannel.open(written, StandardOpenOption.READ)) {
+            return map(channel);
+        }
+    }
+
+    // Best effort: in a read-only cache directory the entry stays valid, it is just hashed again next time
+    private static void refreshStamp(Path cacheFile, long mtime, long size) {
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.WRITE)) {
+            ByteBuffer stamp = ByteBuffer.allocate(16).putLong(mtime).putLong(size);
+            stamp.flip();
+            channel.write(stamp, MTIME_POS);
+        } catch (IOException e) {
+            log.debug("Unable to refresh data cache stamp {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private static CachedTable map(FileChannel channel) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        return new CachedTable(buffer);
+    }
+
+    private static Path write(Path cacheFile, List<String[]> rows, long mtime, long size, byte[] contentHash) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        int[] rowOffsets = new int[rows.size() + 1];
+        int cellCount = 0;
+        int presentRows = 0;
+        for (int r = 0; r < rows.size(); r++) {
+            rowOffsets[r] = cellCount;
+            String[] row = rows.get(r);
+            if (row != null) {
+                presentRows++;
+                cellCount += row.length;
+            }
+        }
+        rowOffsets[rows.size()] = cellCount;
+
+        int[] cells = new int[cellCount];
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        int[] stringOffsets = new int[cellCount + 1];
+        int cell = 0;
+        for (String[] row : rows) {
+            if (row == null) {
+                continue;
+            }
+            for (String value : row) {
+                if (value == null) {
+                    cells[cell++] = -1;
+                    continue;
+                }
+                Integer id = ids.get(value);
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(value, id);
+                    stringOffsets[id] = strings.size();
+                    strings.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                }
+                cells[cell++] = id;
+            }
+        }
+        int stringCount = ids.size();
+        stringOffsets[stringCount] = strings.size();
+
+        int total = HEADER_SIZE + rows.size() + (rows.size() + 1) * 4 + cellCount * 4 + (stringCount + 1) * 4 + strings.size();
+        ByteBuffer out = ByteBuffer.allocate(total);
+        out.putInt(MAGIC).putInt(VERSION).putLong(mtime).putLong(size).put(contentHash)
+                .putInt(presentRows).putInt(rows.size()).putInt(cellCount).putInt(stringCount);
+        for (String[] row : rows) {
+            out.put((byte) (row == null ? 0 : 1));
+        }
+        for (int offset : rowOffsets) {
+            out.putInt(offset);
+        }
+        for (int id : cells) {
+            out.putInt(id);
+        }
+        for (int i = 0; i <= stringCount; i++) {
+            out.putInt(stringOffsets[i]);
+        }
+        out.put(strings.toByteArray());
+        out.flip();
+
+        Files.createDirectories(cacheFile.getParent());
+        Path temp = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        try {
+            Files.move(temp, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return cacheFile;
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            return cacheFile;
+        } catch (IOException e) {
+            // The old entry is still mapped elsewhere (e.g. on Windows); use the fresh copy for this load
+            temp.toFile().deleteOnExit();
+            return temp;
+        }
+    }
+
+    private static byte[] hashFile(Path source) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] chunk = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(source)) {
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                digest.update(chunk, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        return newDigest().digest(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
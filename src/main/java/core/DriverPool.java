@@ -0,0 +1,287 @@
+package core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Bounded pool of warm browser sessions per browser type. Sessions are borrowed with checkout()
+// and handed back with checkin(), which resets the session instead of quitting it. Every live session,
+// idle or borrowed, holds one of the maxSessionsPerType permits until it is quit.
+//
+// The reset clears cookies and storage of every origin open in the session's windows; on Chrome and Edge
+// all cookies and the storage of those origins (IndexedDB, cache storage, service workers) are cleared
+// through CDP as well. Storage of origins that are no longer open in any window, and on other browsers
+// cookies of such origins, can survive into the next checkout.
+public class DriverPool {
+
+    private static final Logger log = LogManager.getLogger(DriverPool.class);
+    // A checkin wakes a waiting checkout at once; a quit session only frees a permit, which is retried this often
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Function<String, WebDriver> factory;
+    private final int maxSessionsPerType;
+    private final Duration maxSessionAge;
+    private final Duration checkoutTimeout;
+
+    private final Map<String, LinkedBlockingDeque<PooledSession>> idle = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Map<WebDriver, PooledSession> borrowed = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public DriverPool(Function<String, WebDriver> factory, int maxSessionsPerType, Duration maxSessionAge, Duration checkoutTimeout) {
+        if (maxSessionsPerType < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.factory = factory;
+        this.maxSessionsPerType = maxSessionsPerType;
+        this.maxSessionAge = maxSessionAge;
+        this.checkoutTimeout = checkoutTimeout;
+    }
+
+    // Starts sessions ahead of time so the first scenarios do not pay the launch cost; sessions that are
+    // already live (idle or borrowed) count against the pool size
+    public void warmUp(String browserType, int count) {
+        String type = browserType.toLowerCase();
+        Semaphore semaphore = permitsFor(type);
+        for (int i = 0; i < count; i++) {
+            if (!semaphore.tryAcquire()) {
+                break;
+            }
+            try {
+                idleFor(type).offerLast(new PooledSession(type, factory.apply(type)));
+            } catch (RuntimeException e) {
+                semaphore.release();
+                throw e;
+            }
+        }
+    }
+
+    // Borrows a healthy session, starting a new one if the pool has spare capacity
+    public WebDriver checkout(String browserType) {
+        String type = browserType.toLowerCase();
+        Semaphore semaphore = permitsFor(type);
+        LinkedBlockingDeque<PooledSession> queue = idleFor(type);
+        long deadline = System.nanoTime() + checkoutTimeout.toNanos();
+        try {
+            while (true) {
+                PooledSession session = queue.pollFirst();
+                if (session == null) {
+                    if (semaphore.tryAcquire()) {
+                        return create(type, semaphore);
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new IllegalStateException("Timed out waiting for a pooled " + type + " session");
+                    }
+                    long waitStart = System.nanoTime();
+                    session = queue.pollFirst(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                    waitNanos.add(System.nanoTime() - waitStart);
+                    if (session == null) {
+                        continue;
+                    }
+                }
+                if (!session.isExpired(maxSessionAge) && session.isHealthy()) {
+                    hits.increment();
+                    borrowed.put(session.driver, session);
+                    return session.driver;
+                }
+                discard(session);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled " + type + " session", e);
+        }
+    }
+
+    // Caller holds a permit, which the new session keeps until it is quit
+    private WebDriver create(String type, Semaphore semaphore) {
+        misses.increment();
+        PooledSession session;
+        try {
+            session = new PooledSession(type, factory.apply(type));
+        } catch (RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+        borrowed.put(session.driver, session);
+        return session.driver;
+    }
+
+    // Returns a borrowed session to the pool after a reset; broken or over-age sessions are quit
+    public void checkin(WebDriver driver) {
+        PooledSession session = borrowed.remove(driver);
+        if (session == null) {
+            return;
+        }
+        if (session.isExpired(maxSessionAge) || !session.reset()) {
+            discard(session);
+        } else {
+            idleFor(session.browserType).offerFirst(session);
+        }
+    }
+
+    // Quits a borrowed session without returning it, e.g. after the browser crashed
+    public void invalidate(WebDriver driver) {
+        PooledSession session = borrowed.remove(driver);
+        if (session != null) {
+            discard(session);
+        }
+    }
+
+    public boolean owns(WebDriver driver) {
+        return borrowed.containsKey(driver);
+    }
+
+    public void shutdown() {
+        idle.values().forEach(queue -> {
+            PooledSession session;
+            while ((session = queue.pollFirst()) != null) {
+                session.quit();
+            }
+        });
+        borrowed.values().forEach(PooledSession::quit);
+        borrowed.clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    public Duration getTotalWaitTime() {
+        return Duration.ofNanos(waitNanos.sum());
+    }
+
+    public int getIdleCount(String browserType) {
+        LinkedBlockingDeque<PooledSession> queue = idle.get(browserType.toLowerCase());
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    public String toString() {
+        return "DriverPool[hits=" + getHits() + ", misses=" + getMisses() + ", discarded=" + getDiscarded()
+                + ", waitMs=" + getTotalWaitTime().toMillis() + "]";
+    }
+
+    private void discard(PooledSession session) {
+        discarded.increment();
+        try {
+            session.quit();
+        } finally {
+            permitsFor(session.browserType).release();
+        }
+    }
+
+    private LinkedBlockingDeque<PooledSession> idleFor(String type) {
+        return idle.computeIfAbsent(type, t -> new LinkedBlockingDeque<>());
+    }
+
+    private Semaphore permitsFor(String type) {
+        return permits.computeIfAbsent(type, t -> new Semaphore(maxSessionsPerType, true));
+    }
+
+    private static class PooledSession {
+        private final String browserType;
+        private final WebDriver driver;
+        private final long createdAt = System.nanoTime();
+
+        PooledSession(String browserType, WebDriver driver) {
+            this.browserType = browserType;
+            this.driver = driver;
+        }
+
+        boolean isExpired(Duration maxAge) {
+            return System.nanoTime() - createdAt > maxAge.toNanos();
+        }
+
+        boolean isHealthy() {
+            try {
+                return !driver.getWindowHandles().isEmpty();
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        // Clears cookies and storage of every open origin, closes extra windows and parks the session on about:blank
+        boolean reset() {
+            try {
+                Set<String> handles = driver.getWindowHandles();
+                String keep = handles.iterator().next();
+                Set<String> origins = new LinkedHashSet<>();
+                for (String handle : handles) {
+                    driver.switchTo().window(handle);
+                    clearCurrentOrigin(origins);
+                    if (!handle.equals(keep)) {
+                        driver.close();
+                    }
+                }
+                driver.switchTo().window(keep);
+                clearBrowserData(origins);
+                driver.get("about:blank");
+                ElementCache.invalidate(driver);
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        // WebDriver can only reach the cookies and storage of the document that is currently loaded
+        private void clearCurrentOrigin(Set<String> origins) {
+            driver.manage().deleteAllCookies();
+            if (driver instanceof JavascriptExecutor) {
+                Object origin = ((JavascriptExecutor) driver).executeScript(
+                        "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}"
+                                + " return window.location.origin;");
+                if (origin instanceof String && ((String) origin).startsWith("http")) {
+                    origins.add((String) origin);
+                }
+            }
+        }
+
+        // Chromium: every cookie of the profile, plus all storage types of the origins seen in the windows
+        private void clearBrowserData(Set<String> origins) {
+            WebDriver target = BrowserFactory.unwrap(driver);
+            if (!(target instanceof HasCdp)) {
+                return;
+            }
+            HasCdp cdp = (HasCdp) target;
+            cdp.executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+            for (String origin : origins) {
+                cdp.executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", origin, "storageTypes", "all"));
+            }
+        }
+
+        void quit() {
+            try {
+                BrowserFactory.quitSession(driver);
+            } catch (RuntimeException e) {
+                log.warn("Error quitting pooled {} session: {}", browserType, e.getMessage());
+            }
+        }
+    }
+}
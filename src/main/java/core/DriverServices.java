@@ -0,0 +1,338 @@
+package core;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.service.DriverService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Driver binaries and long-lived driver services for BrowserFactory.
+//
+// Binary paths resolved by WebDriverManager are recorded in DRIVER_CACHE_DIR/drivers.properties (default
+// ~/.cache/ls-automation/drivers). Later JVMs reuse the recorded path without resolving anything, so
+// runs work offline after the first one. When nothing can be resolved, Selenium Manager is left to find
+// the driver as before.
+//
+// chromedriver and msedgedriver serve many sessions, so with DRIVER_SERVICE_REUSE=true (default) one
+// service per browser type is started and every session is opened against it as a RemoteWebDriver
+// (augmented, so CDP keeps working). geckodriver and safaridriver allow one session per process, so
+// Firefox still gets a service per session, only from the cached binary. Services stop at JVM exit.
+// When a browser update makes the cached driver too old, new sessions go to a replacement service started
+// from the re-resolved binary; the old service keeps serving its open sessions and stops after the last
+// one is released.
+public class DriverServices {
+
+    private static final Logger log = LogManager.getLogger(DriverServices.class);
+
+    private static final Map<String, SharedService> sharedServices = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, SharedService> sessions = new ConcurrentHashMap<>();
+    private static final Set<SharedService> running = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Path> resolved = new ConcurrentHashMap<>();
+    private static volatile boolean shutdownHookRegistered;
+
+    public static boolean isReuseEnabled(String browserType) {
+        String type = browserType.toLowerCase();
+        return ("chrome".equals(type) || "edge".equals(type)) && ConfigManager.getBoolean("DRIVER_SERVICE_REUSE", true);
+    }
+
+    // New session on the shared chrome/edge service. Only a driver/browser version mismatch re-resolves
+    // the binary; other failures (crashed browser, locked profile, resource limits) are thrown as they are
+    // and leave the service running for the other sessions.
+    public static WebDriver openSession(String browserType, Capabilities options) {
+        String type = browserType.toLowerCase();
+        SharedService shared = acquire(type);
+        try {
+            return newRemoteSession(shared, options);
+        } catch (SessionNotCreatedException e) {
+            if (!isVersionMismatch(e)) {
+                throw e;
+            }
+            log.warn("Driver version mismatch on shared {} service, re-resolving driver: {}", type, e.getMessage());
+            replace(type, shared);
+            return newRemoteSession(acquire(type), options);
+        }
+    }
+
+    // Called after quit; stops a replaced service once its last session is gone
+    static void release(WebDriver driver) {
+        SharedService shared = sessions.remove(driver);
+        if (shared != null) {
+            releaseSlot(shared);
+        }
+    }
+
+    // Moves the session bookkeeping to the decorated driver BrowserFactory hands out
+    static void alias(WebDriver created, WebDriver handedOut) {
+        if (created != handedOut) {
+            SharedService shared = sessions.remove(created);
+            if (shared != null) {
+                sessions.put(handedOut, shared);
+            }
+        }
+    }
+
+    // The shared service's slot is taken before the session is created and given back if creation fails
+    private static WebDriver newRemoteSession(SharedService shared, Capabilities options) {
+        boolean opened = false;
+        try {
+            WebDriver driver = new Augmenter().augment(new RemoteWebDriver(shared.service.getUrl(), options));
+            sessions.put(driver, shared);
+            opened = true;
+            return driver;
+        } finally {
+            if (!opened) {
+                releaseSlot(shared);
+            }
+        }
+    }
+
+    private static synchronized SharedService acquire(String type) {
+        SharedService shared = sharedServices.get(type);
+        if (shared == null || !shared.service.isRunning()) {
+            if (shared != null) {
+                retire(shared);
+            }
+            DriverService service = "edge".equals(type) ? newEdgeService() : newChromeService();
+            try {
+                service.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to start " + type + " driver service", e);
+            }
+            shared = new SharedService(type, service);
+            sharedServices.put(type, shared);
+            running.add(shared);
+            registerShutdownHook();
+            log.info("Started shared {} driver service at {}", type, service.getUrl());
+        }
+        shared.sessions.incrementAndGet();
+        return shared;
+    }
+
+    // Several sessions can fail on the same outdated service at once; only the first one replaces it
+    private static synchronized void replace(String type, SharedService failed) {
+        if (sharedServices.get(type) == failed) {
+            forgetBinary(type);
+            retire(failed);
+        }
+    }
+
+    private static synchronized void releaseSlot(SharedService shared) {
+        if (shared.sessions.decrementAndGet() <= 0 && shared.retired) {
+            stop(shared);
+        }
+    }
+
+    private static synchronized void retire(SharedService shared) {
+        sharedServices.remove(shared.type, shared);
+        shared.retired = true;
+        if (shared.sessions.get() <= 0) {
+            stop(shared);
+        }
+    }
+
+    private static void stop(SharedService shared) {
+        running.remove(shared);
+        try {
+            shared.service.stop();
+        } catch (RuntimeException e) {
+            log.warn("Error stopping {} driver service: {}", shared.type, e.getMessage());
+        }
+    }
+
+    // chromedriver: "This version of ChromeDriver only supports Chrome version 120";
+    // msedgedriver: "This version of Microsoft Edge WebDriver only supports Microsoft Edge version 120"
+    private static boolean isVersionMismatch(SessionNotCreatedException e) {
+        String message = String.valueOf(e.getMessage()).toLowerCase(Locale.ROOT);
+        return message.contains("only supports") || message.contains("current browser version is");
+    }
+
+    // Per-session services (the default Selenium behaviour) built from the cached binary
+    public static ChromeDriverService newChromeService() {
+        ChromeDriverService.Builder builder = new ChromeDriverService.Builder().usingAnyFreePort();
+        Path binary = resolveBinary("chrome");
+        if (binary != null) {
+            builder.usingDriverExecutable(binary.toFile());
+        }
+        return builder.build();
+    }
+
+    public static EdgeDriverService newEdgeService() {
+        EdgeDriverService.Builder builder = new EdgeDriverService.Builder().usingAnyFreePort();
+        Path binary = resolveBinary("edge");
+        if (binary != null) {
+            builder.usingDriverExecutable(binary.toFile());
+        }
+        return builder.build();
+    }
+
+    public static GeckoDriverService newFirefoxService() {
+        GeckoDriverService.Builder builder = new GeckoDriverService.Builder().usingAnyFreePort();
+        Path binary = resolveBinary("firefox");
+        if (binary != null) {
+            builder.usingDriverExecutable(binary.toFile());
+        }
+        return builder.build();
+    }
+
+    // Cached driver binary for the browser type, resolving it with WebDriverManager on the first run
+    public static Path resolveBinary(String browserType) {
+        String key = browserType.toLowerCase() + "." + platformKey();
+        Path known = resolved.get(key);
+        if (known != null && Files.isExecutable(known)) {
+            return known;
+        }
+        synchronized (DriverServices.class) {
+            Properties cache = readCache();
+            String cached = cache.getProperty(key);
+            if (cached != null && Files.isExecutable(Paths.get(cached))) {
+                resolved.put(key, Paths.get(cached));
+                return Paths.get(cached);
+            }
+            try {
+                WebDriverManager manager = manager(browserType).cachePath(getCacheDirectory().toString());
+                manager.setup();
+                String path = manager.getDownloadedDriverPath();
+                if (path == null) {
+                    return null;
+                }
+                Path binary = Paths.get(path).toAbsolutePath();
+                cache.setProperty(key, binary.toString());
+                writeCache(cache);
+                resolved.put(key, binary);
+                return binary;
+            } catch (RuntimeException | IOException e) {
+                log.warn("Unable to resolve {} driver, falling back to Selenium Manager: {}", browserType, e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    // Forgets the cached binary and retires the shared service so the next session resolves again;
+    // sessions still open on the retired service keep working until they are released
+    public static synchronized void invalidate(String browserType) {
+        String type = browserType.toLowerCase();
+        forgetBinary(type);
+        SharedService shared = sharedServices.get(type);
+        if (shared != null) {
+            retire(shared);
+        }
+    }
+
+    private static synchronized void forgetBinary(String type) {
+        String key = type + "." + platformKey();
+        resolved.remove(key);
+        Properties cache = readCache();
+        if (cache.remove(key) != null) {
+            try {
+                writeCache(cache);
+            } catch (IOException e) {
+                log.warn("Unable to update driver cache: {}", e.getMessage());
+            }
+        }
+    }
+
+    public static synchronized void shutdown() {
+        for (SharedService shared : running) {
+            stop(shared);
+        }
+        sharedServices.clear();
+        sessions.clear();
+    }
+
+    public static Path getCacheDirectory() {
+        String configured = ConfigManager.getString("DRIVER_CACHE_DIR");
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "ls-automation", "drivers");
+    }
+
+    private static WebDriverManager manager(String browserType) {
+        switch (browserType.toLowerCase()) {
+            case "chrome":
+                return WebDriverManager.chromedriver();
+            case "edge":
+                return WebDriverManager.edgedriver();
+            case "firefox":
+                return WebDriverManager.firefoxdriver();
+            default:
+                throw new IllegalArgumentException("No driver binary for " + browserType);
+        }
+    }
+
+    private static String platformKey() {
+        String os = System.getProperty("os.name").toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+        return os + "." + System.getProperty("os.arch").toLowerCase(Locale.ROOT);
+    }
+
+    private static Properties readCache() {
+        Properties cache = new Properties();
+        Path file = getCacheDirectory().resolve("drivers.properties");
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                cache.load(in);
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable driver cache {}: {}", file, e.getMessage());
+            }
+        }
+        return cache;
+    }
+
+    // Written to a temp file and moved into place so parallel JVMs never read a partial file
+    private static void writeCache(Properties cache) throws IOException {
+        Path directory = getCacheDirectory();
+        Files.createDirectories(directory);
+        Path file = directory.resolve("drivers.properties");
+        Path temp = Files.createTempFile(directory, "drivers", ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            cache.store(out, "Driver binaries resolved by WebDriverManager");
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void registerShutdownHook() {
+        if (!shutdownHookRegistered) {
+            shutdownHookRegistered = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(DriverServices::shutdown, "driver-service-shutdown"));
+        }
+    }
+
+    private static class SharedService {
+        private final String type;
+        private final DriverService service;
+        // sessions open or being created on this service
+        private final AtomicInteger sessions = new AtomicInteger();
+        private volatile boolean retired;
+
+        SharedService(String type, DriverService service) {
+            this.type = type;
+            this.service = service;
+        }
+    }
+}
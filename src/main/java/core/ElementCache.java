@@ -0,0 +1,129 @@
+package core;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// By-keyed cache of resolved elements for one driver and its current page/frame. A hit skips the
+// findElement round trip and the visibility wait; a cached element that has gone stale is evicted and
+// re-resolved once. Navigation, refresh and frame switches invalidate the whole cache.
+// ELEMENT_CACHE=false turns caching off (every lookup is then counted as a miss).
+public class ElementCache {
+
+    private static final Map<WebDriver, ElementCache> caches = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<By, WebElement> elements = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleRetries = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private ElementCache(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Shared by every ReusableLibrary built on the same driver
+    public static ElementCache forDriver(WebDriver driver) {
+        synchronized (caches) {
+            return caches.computeIfAbsent(driver, d -> new ElementCache(ConfigManager.getBoolean("ELEMENT_CACHE", true)));
+        }
+    }
+
+    // Used when a session is reset or handed to another scenario
+    public static void invalidate(WebDriver driver) {
+        ElementCache cache = caches.get(driver);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    // Returns the cached element for the locator, resolving (find + wait) on a miss
+    public WebElement get(By locator, Function<By, WebElement> resolver) {
+        if (enabled) {
+            WebElement cached = elements.get(locator);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        WebElement resolved = resolver.apply(locator);
+        if (enabled && resolved != null) {
+            elements.put(locator, resolved);
+        }
+        return resolved;
+    }
+
+    // Runs the action on the cached element; if it turns out stale the element is re-resolved and the
+    // action retried once. A stale freshly-resolved element is reported to the caller as usual.
+    public <T> T withElement(By locator, Function<By, WebElement> resolver, Function<WebElement, T> action) {
+        boolean fromCache = enabled && elements.containsKey(locator);
+        WebElement element = get(locator, resolver);
+        try {
+            return action.apply(element);
+        } catch (StaleElementReferenceException e) {
+            elements.remove(locator, element);
+            if (!fromCache) {
+                throw e;
+            }
+            staleRetries.increment();
+            return action.apply(get(locator, resolver));
+        }
+    }
+
+    public void invalidate(By locator) {
+        elements.remove(locator);
+    }
+
+    public void invalidate() {
+        if (!elements.isEmpty()) {
+            elements.clear();
+        }
+        invalidations.increment();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getStaleRetryCount() {
+        return staleRetries.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ElementCache[size=%d, hits=%d, misses=%d, staleRetries=%d, invalidations=%d]",
+                size(), getHitCount(), getMissCount(), getStaleRetryCount(), getInvalidationCount());
+    }
+}
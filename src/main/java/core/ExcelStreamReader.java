@@ -0,0 +1,344 @@
+package core;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LocaleUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Streaming alternative to ExcelUtils for large .xlsx sheets. The sheet XML is pulled row by row,
+// so memory stays flat regardless of sheet size (shared strings are still loaded once). Cell text
+// follows Cell.toString() as used by ExcelUtils, and the header row is parsed only once.
+public class ExcelStreamReader implements Closeable, Iterable<Map<String, String>> {
+
+    private static final XMLInputFactory XML_FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        XML_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final OPCPackage pkg;
+    private final XSSFReader reader;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+    private final String sheetName;
+    private final List<String> headers;
+    private SheetCursor cursor;
+    private StreamRow lastRow;
+    private int rowCount = -1;
+
+    public ExcelStreamReader(String filePath, String sheetName) throws IOException {
+        this.sheetName = sheetName;
+        try {
+            pkg = OPCPackage.open(new File(filePath), PackageAccess.READ);
+            reader = new XSSFReader(pkg);
+            sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            styles = reader.getStylesTable();
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Unable to open workbook " + filePath, e);
+        }
+        StreamRow first = readRow(0);
+        headers = first == null ? Collections.emptyList() : Collections.unmodifiableList(first.cells);
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    // Same as ExcelUtils.getCellData; reading forward is streaming, going back re-opens the sheet
+    public String getCellData(int rowIndex, int colIndex) {
+        StreamRow row = readRow(rowIndex);
+        return row == null ? null : row.get(colIndex);
+    }
+
+    // Same as ExcelUtils.getRowDataAsMap, keyed by the cached header row
+    public Map<String, String> getRowDataAsMap(int rowIndex) {
+        StreamRow row = readRow(rowIndex);
+        return row == null ? new LinkedHashMap<>() : toMap(row);
+    }
+
+    // Same as ExcelUtils.getRowCount (rows physically present in the sheet); counted once
+    public int getRowCount() {
+        if (rowCount < 0) {
+            int count = 0;
+            try (SheetCursor counter = openCursor()) {
+                while (counter.next() != null) {
+                    count++;
+                }
+            }
+            rowCount = count;
+        }
+        return rowCount;
+    }
+
+    // Lazily iterates the data rows below the header as header-keyed maps
+    @Override
+    public Iterator<Map<String, String>> iterator() {
+        SheetCursor rows = openCursor();
+        return new Iterator<Map<String, String>>() {
+            private StreamRow next = advance();
+
+            private StreamRow advance() {
+                StreamRow row;
+                do {
+                    row = rows.next();
+                } while (row != null && row.index == 0);
+                if (row == null) {
+                    rows.close();
+                }
+                return row;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map<String, String> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                StreamRow current = next;
+                next = advance();
+                return toMap(current);
+            }
+        };
+    }
+
+    public Stream<Map<String, String>> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (cursor != null) {
+            cursor.close();
+        }
+        pkg.revert();
+    }
+
+    private Map<String, String> toMap(StreamRow row) {
+        Map<String, String> rowData = new LinkedHashMap<>();
+        for (int i = 0; i < headers.size(); i++) {
+            String key = headers.get(i);
+            if (key != null) {
+                String value = row.get(i);
+                rowData.put(key, value != null ? value : "");
+            }
+        }
+        return rowData;
+    }
+
+    private StreamRow readRow(int rowIndex) {
+        if (lastRow != null && lastRow.index == rowIndex) {
+            return lastRow;
+        }
+        if (cursor == null || lastRow == null || lastRow.index > rowIndex) {
+            if (cursor != null) {
+                cursor.close();
+            }
+            cursor = openCursor();
+            lastRow = null;
+        }
+        StreamRow row;
+        while ((row = cursor.next()) != null) {
+            lastRow = row;
+            if (row.index == rowIndex) {
+                return row;
+            }
+            if (row.index > rowIndex) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private SheetCursor openCursor() {
+        try {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                InputStream in = sheets.next();
+                if (sheets.getSheetName().equals(sheetName)) {
+                    return new SheetCursor(in);
+                }
+                in.close();
+            }
+        } catch (IOException | OpenXML4JException | XMLStreamException e) {
+            throw new IllegalStateException("Unable to read sheet " + sheetName, e);
+        }
+        throw new IllegalArgumentException("Sheet not found: " + sheetName);
+    }
+
+    private String formatCell(String type, String style, String value, String formula) {
+        if (formula != null) {
+            return formula;
+        }
+        if (value == null) {
+            return "";
+        }
+        if ("s".equals(type)) {
+            return sharedStrings.getItemAt(Integer.parseInt(value)).getString();
+        }
+        if ("b".equals(type)) {
+            return "1".equals(value) ? "TRUE" : "FALSE";
+        }
+        if (type == null || "n".equals(type)) {
+            double number = Double.parseDouble(value);
+            if (style != null && isDateStyle(Integer.parseInt(style)) && DateUtil.isValidExcelDate(number)) {
+                DateFormat format = new SimpleDateFormat("dd-MMM-yyyy", LocaleUtil.getUserLocale());
+                format.setTimeZone(LocaleUtil.getUserTimeZone());
+                return format.format(DateUtil.getJavaDate(number));
+            }
+            return Double.toString(number);
+        }
+        return value;
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        if (styles == null || styleIndex >= styles.getNumCellStyles()) {
+            return false;
+        }
+        XSSFCellStyle style = styles.getStyleAt(styleIndex);
+        return DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+    }
+
+    private static int columnIndex(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static class StreamRow {
+        private final int index;
+        private final List<String> cells;
+
+        StreamRow(int index, List<String> cells) {
+            this.index = index;
+            this.cells = cells;
+        }
+
+        String get(int colIndex) {
+            return colIndex < cells.size() ? cells.get(colIndex) : null;
+        }
+    }
+
+    // Pull parser over one sheet part; next() returns the following <row> or null at the end
+    private class SheetCursor implements Closeable {
+        private final InputStream in;
+        private final XMLStreamReader xml;
+        private int previousRow = -1;
+
+        SheetCursor(InputStream in) throws XMLStreamException {
+            this.in = in;
+            this.xml = XML_FACTORY.createXMLStreamReader(in);
+        }
+
+        StreamRow next() {
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                        String r = xml.getAttributeValue(null, "r");
+                        int index = r != null ? Integer.parseInt(r) - 1 : previousRow + 1;
+                        previousRow = index;
+                        return new StreamRow(index, readCells());
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException("Unable to parse sheet " + sheetName, e);
+            }
+        }
+
+        private List<String> readCells() throws XMLStreamException {
+            List<String> cells = new ArrayList<>();
+            String type = null;
+            String style = null;
+            String value = null;
+            String formula = null;
+            StringBuilder inline = null;
+            int column = -1;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if ("c".equals(name)) {
+                        String ref = xml.getAttributeValue(null, "r");
+                        column = ref != null ? columnIndex(ref) : column + 1;
+                        type = xml.getAttributeValue(null, "t");
+                        style = xml.getAttributeValue(null, "s");
+                        value = null;
+                        formula = null;
+                        inline = null;
+                    } else if ("v".equals(name)) {
+                        value = xml.getElementText();
+                    } else if ("f".equals(name)) {
+                        formula = xml.getElementText();
+                    } else if ("t".equals(name) && "inlineStr".equals(type)) {
+                        if (inline == null) {
+                            inline = new StringBuilder();
+                        }
+                        inline.append(xml.getElementText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if ("c".equals(name)) {
+                        while (cells.size() < column) {
+                            cells.add(null);
+                        }
+                        String text = inline != null ? inline.toString() : formatCell(type, style, value, formula);
+                        cells.add(text);
+                    } else if ("row".equals(name)) {
+                        return cells;
+                    }
+                }
+            }
+            return cells;
+        }
+
+        @Override
+        public void close() {
+            try {
+                xml.close();
+                in.close();
+            } catch (XMLStreamException | IOException e) {
+                throw new UncheckedIOException(new IOException("Unable to close sheet " + sheetName, e));
+            }
+        }
+    }
+}
@@ -5,23 +5,40 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class ExcelUtils {
 
     private Workbook workbook;
     private Sheet sheet;
+    private CachedTable table;
+    private String[] headers;
 
-    // Constructor to load Excel file and sheet
+    // Constructor to load Excel file and sheet; with DATA_CACHE=true the sheet is served from the compiled cache
     public ExcelUtils(String filePath, String sheetName) throws IOException {
-        FileInputStream fis = new FileInputStream(filePath);
-        workbook = new XSSFWorkbook(fis);
-        sheet = workbook.getSheet(sheetName);
+        this(filePath, sheetName, DataCache.isEnabled());
+    }
+
+    public ExcelUtils(String filePath, String sheetName, boolean useCache) throws IOException {
+        if (useCache) {
+            table = DataCache.load(filePath, "xlsx:" + sheetName, () -> compileSheet(filePath, sheetName));
+        } else {
+            FileInputStream fis = new FileInputStream(filePath);
+            workbook = new XSSFWorkbook(fis);
+            sheet = workbook.getSheet(sheetName);
+        }
     }
 
     // Method to get data from a specific cell
     public String getCellData(int rowIndex, int colIndex) {
+        if (table != null) {
+            return table.getCell(rowIndex, colIndex);
+        }
         Row row = sheet.getRow(rowIndex);
         if (row != null) {
             Cell cell = row.getCell(colIndex);
@@ -35,26 +52,81 @@ public class ExcelUtils {
     // Method to get all data as a Map (key-value pair)
     public Map<String, String> getRowDataAsMap(int rowIndex) {
         Map<String, String> rowData = new HashMap<>();
-        Row headerRow = sheet.getRow(0); // Assuming first row contains headers
-        Row dataRow = sheet.getRow(rowIndex);
-
-        if (headerRow != null && dataRow != null) {
-            for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                String key = headerRow.getCell(i).toString();
-                String value = dataRow.getCell(i) != null ? dataRow.getCell(i).toString() : "";
-                rowData.put(key, value);
+        String[] headerValues = getHeaders();
+
+        if (headerValues.length > 0 && isRowPresent(rowIndex)) {
+            for (int i = 0; i < headerValues.length; i++) {
+                String value = getCellData(rowIndex, i);
+                rowData.put(headerValues[i], value != null ? value : "");
             }
         }
         return rowData;
     }
 
+    // Header row is read and stringified once, not on every getRowDataAsMap call
+    private String[] getHeaders() {
+        if (headers == null) {
+            // Assuming first row contains headers
+            int columns = table != null ? table.getColumnCount(0)
+                    : sheet.getRow(0) != null ? Math.max(sheet.getRow(0).getLastCellNum(), 0) : 0;
+            headers = new String[columns];
+            for (int i = 0; i < columns; i++) {
+                headers[i] = getCellData(0, i);
+            }
+        }
+        return headers;
+    }
+
+    private boolean isRowPresent(int rowIndex) {
+        return table != null ? table.isRowPresent(rowIndex) : sheet.getRow(rowIndex) != null;
+    }
+
+    // Lazily streams the data rows of a large sheet as header-keyed maps without loading the workbook
+    public static Stream<Map<String, String>> streamRows(String filePath, String sheetName) throws IOException {
+        ExcelStreamReader reader = new ExcelStreamReader(filePath, sheetName);
+        return reader.stream().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     // Method to get the number of rows in the sheet
     public int getRowCount() {
-        return sheet.getPhysicalNumberOfRows();
+        return table != null ? table.getPresentRowCount() : sheet.getPhysicalNumberOfRows();
     }
 
     // Close the workbook
     public void closeWorkbook() throws IOException {
-        workbook.close();
+        if (workbook != null) {
+            workbook.close();
+        }
+    }
+
+    // Flattens a sheet into cache rows using the same cell.toString() text as the workbook mode
+    private static List<String[]> compileSheet(String filePath, String sheetName) throws IOException {
+        try (FileInputStream fis = new FileInputStream(filePath); Workbook source = new XSSFWorkbook(fis)) {
+            Sheet sourceSheet = source.getSheet(sheetName);
+            if (sourceSheet == null) {
+                throw new IllegalArgumentException("Sheet not found: " + sheetName);
+            }
+            List<String[]> rows = new ArrayList<>();
+            for (int r = 0; r <= sourceSheet.getLastRowNum(); r++) {
+                Row row = sourceSheet.getRow(r);
+                if (row == null) {
+                    rows.add(null);
+                    continue;
+                }
+                String[] cells = new String[Math.max(row.getLastCellNum(), 0)];
+                for (int c = 0; c < cells.length; c++) {
+                    Cell cell = row.getCell(c);
+                    cells[c] = cell != null ? cell.toString() : null;
+                }
+                rows.add(cells);
+            }
+            return rows;
+        }
     }
 }
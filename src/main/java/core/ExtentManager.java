@@ -2,10 +2,28 @@ package core;
 
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.Markup;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
 
+
+// Report mutations are applied by a single ReportWriter thread; test threads only enqueue events,
+// so none of these methods take a class-wide lock. flush() is coalesced, flushNow() is immediate.
 public class ExtentManager {
+
+    private static final Logger log = LogManager.getLogger(ExtentManager.class);
+    public static final String REPORT_DIRECTORY = "Automation Reports/";
     public static ExtentReports extent;
     public static ExtentSparkReporter htmlReporter;
 
@@ -13,6 +31,13 @@ public class ExtentManager {
     public static ThreadLocal<ExtentTest> extentTest = new ThreadLocal<>();
     public static ThreadLocal<String> currentPlatform=new ThreadLocal<>();
     public static ExtentTest test = null;
+    private static final ThreadLocal<CompletableFuture<ExtentTest>> pendingTest = new ThreadLocal<>();
+    private static volatile ReportWriter writer;
+    private static final ThreadLocal<String> journalTest = new ThreadLocal<>();
+    private static volatile ResultJournal journal;
+    private static volatile boolean journalOpened;
+    private static final DateTimeFormatter RUN_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
     public static void setPlatform(String platform) {
         currentPlatform.set(platform);
     }
@@ -20,10 +45,11 @@ public class ExtentManager {
     public static String getPlatform() {
         return currentPlatform.get();
     }
-    public static ExtentReports getInstance(String pt,String cluster,String baseurl) {
+    public static synchronized ExtentReports getInstance(String pt,String cluster,String baseurl) {
         if (extent == null) {
-            String fileName = "ExtentReport-"+pt;
-            String reportLocation = "Automation Reports/"+fileName+".html";
+            String worker = getWorkerId();
+            String fileName = "ExtentReport-"+pt+(worker != null ? "-"+worker : "");
+            String reportLocation = REPORT_DIRECTORY+fileName+".html";
             htmlReporter = new ExtentSparkReporter(reportLocation);
             htmlReporter.config().setDocumentTitle("Automation Report");
             htmlReporter.config().setReportName("Automation Test Results");
@@ -36,23 +62,175 @@ public class ExtentManager {
             extent.setSystemInfo("Base Url", baseurl);
             extent.setSystemInfo("Platform", pt);
             extent.attachReporter(htmlReporter);
+            ResultJournal current = journal();
+            if (current != null) {
+                current.systemInfo("Application", "LS1 Smoke Testing");
+                current.systemInfo("Cluster", cluster);
+                current.systemInfo("Base Url", baseurl);
+                current.systemInfo("Platform", pt);
+            }
         }
         return extent;
     }
 
-    public static synchronized ExtentTest getTest() {
-        return extentTest.get();
+    // Waits only if the writer has not created this thread's test yet
+    public static ExtentTest getTest() {
+        ExtentTest current = extentTest.get();
+        if (current == null) {
+            CompletableFuture<ExtentTest> pending = pendingTest.get();
+            if (pending != null) {
+                current = pending.join();
+                extentTest.set(current);
+            }
+        }
+        return current;
+    }
+
+    public static void createTest(String testName, String description) {
+        ExtentReports reports = extent;
+        if (reports == null) {
+            throw new IllegalStateException("ExtentManager.getInstance must be called before createTest");
+        }
+        extentTest.remove();
+        pendingTest.set(writer().submitAndWake(() -> reports.createTest(testName, description)));
+        ResultJournal current = journal();
+        if (current != null) {
+            journalTest.set(current.startTest(testName, description));
+        }
+    }
+
+    // Forgets the current thread's test, e.g. before a pooled thread picks up the next scenario
+    public static void clearTest() {
+        extentTest.remove();
+        pendingTest.remove();
+        journalTest.remove();
+    }
+
+    // Non-blocking log against the current thread's test
+    public static void log(Status status, String details) {
+        CompletableFuture<ExtentTest> target = currentTarget();
+        if (target != null) {
+            writer().submit(() -> target.join().log(status, details));
+            journal(status, details);
+        }
+    }
+
+    // Non-blocking log of a table, code block or label
+    public static void log(Status status, Markup markup) {
+        CompletableFuture<ExtentTest> target = currentTarget();
+        if (target != null) {
+            writer().submit(() -> target.join().log(status, markup));
+            journal(status, markup.getMarkup());
+        }
+    }
+
+    // Attaches a screenshot written by ScreenshotService; the path is relative to the report file
+    public static void attachScreenshot(Status status, String details, String relativePath) {
+        CompletableFuture<ExtentTest> target = currentTarget();
+        if (target != null && relativePath != null) {
+            writer().submit(() -> target.join().log(status, details,
+                    MediaEntityBuilder.createScreenCaptureFromPath(relativePath, details).build()));
+            String testId = journalTest.get();
+            if (testId != null) {
+                journal.media(testId, status, details, relativePath);
+            }
+        }
+    }
+
+    public static void info(String details) {
+        log(Status.INFO, details);
+    }
+
+    public static void pass(String details) {
+        log(Status.PASS, details);
+    }
+
+    public static void fail(String details) {
+        log(Status.FAIL, details);
     }
 
-    public static synchronized void createTest(String testName, String description) {
-        ExtentTest test = extent.createTest(testName, description);
-        extentTest.set(test);
+    // Requests a report rewrite; requests are coalesced by time and event count
+    public static void flush() {
+        if (extent != null) {
+            writer().requestFlush();
+        }
     }
 
-    public static synchronized void flush() {
+    // Applies every queued event and rewrites the report before returning
+    public static void flushNow() {
         if (extent != null) {
-            extent.flush();
+            writer().flushNow();
+        }
+    }
+
+    // WORKER_ID, or the Gradle test worker number when tests run in forked JVMs; null for a single JVM.
+    // Reports and journals are named after it so parallel workers never overwrite each other.
+    public static String getWorkerId() {
+        String worker = ConfigManager.getString("WORKER_ID");
+        if (worker == null || worker.isEmpty()) {
+            String gradleWorker = System.getProperty("org.gradle.test.worker");
+            worker = gradleWorker != null ? "gradle-" + gradleWorker : null;
+        }
+        return worker == null ? null : worker.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    // RUN_ID (shared by all workers of one CI run), or the JVM start time. Journals and their test ids
+    // carry it, so a rerun with the same worker id never mixes with an earlier run's journal.
+    public static String getRunId() {
+        String run = ConfigManager.getString("RUN_ID");
+        if (run == null || run.isEmpty()) {
+            run = RUN_FORMAT.format(Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime()));
+        }
+        return run.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static void journal(Status status, String details) {
+        String testId = journalTest.get();
+        if (testId != null) {
+            journal.log(testId, status, details);
+        }
+    }
+
+    // JOURNAL=false disables the per-worker result journal (see ResultJournal and JournalMerger)
+    private static ResultJournal journal() {
+        if (!journalOpened) {
+            synchronized (ExtentManager.class) {
+                if (!journalOpened) {
+                    if (ConfigManager.getBoolean("JOURNAL", true)) {
+                        String worker = getWorkerId();
+                        if (worker == null) {
+                            worker = ManagementFactory.getRuntimeMXBean().getName().replaceAll("[^A-Za-z0-9._-]", "_");
+                        }
+                        try {
+                            journal = new ResultJournal(Paths.get(ConfigManager.getString("JOURNAL_DIR",
+                                    REPORT_DIRECTORY + "journal")), worker, getRunId());
+                        } catch (IOException e) {
+                            log.error("Result journal disabled: {}", e.getMessage());
+                        }
+                    }
+                    journalOpened = true;
+                }
+            }
+        }
+        return journal;
+    }
+
+    private static CompletableFuture<ExtentTest> currentTarget() {
+        ExtentTest current = extentTest.get();
+        return current != null ? CompletableFuture.completedFuture(current) : pendingTest.get();
+    }
+
+    private static ReportWriter writer() {
+        ReportWriter current = writer;
+        if (current == null) {
+            synchronized (ExtentManager.class) {
+                if (writer == null) {
+                    writer = new ReportWriter(() -> extent);
+                }
+                current = writer;
+            }
         }
+        return current;
     }
 
 }
@@ -0,0 +1,336 @@
+package core;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A list of field operations applied in as few round trips as possible. Text, select and checkbox
+// fields are located and set by one executeScript call (native value setter + input/change events, so
+// React/Angular bindings see the change). Fields added with type(), and text fields the script could
+// not set (e.g. contenteditable), are typed afterwards in a single Actions sequence.
+//
+//   FormBatch.Result result = library.fillForm(FormBatch.create()
+//           .text(By.id("name"), "Alice")
+//           .selectByVisibleText(By.id("role"), "Presenter")
+//           .check(By.id("terms"), true)
+//           .type(By.id("otp"), "123456"));
+public class FormBatch {
+
+    public enum Kind { TEXT, TYPE, SELECT_TEXT, SELECT_VALUE, SELECT_INDEX, CHECK }
+
+    // Locator strategies the script can resolve in-page; anything else is found with one findElement first
+    private static final Set<String> SCRIPT_STRATEGIES = new HashSet<>(
+            Arrays.asList("css selector", "xpath", "id", "name", "class name", "tag name"));
+
+    private static final String FILL_SCRIPT =
+            "var ops = arguments[0], results = [];" +
+            "function locate(op) {" +
+            "  if (op.element) return op.element;" +
+            "  switch (op.using) {" +
+            "    case 'css selector': return document.querySelector(op.selector);" +
+            "    case 'xpath': return document.evaluate(op.selector, document, null," +
+            "        XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+            "    case 'id': return document.getElementById(op.selector);" +
+            "    case 'name': return document.getElementsByName(op.selector)[0] || null;" +
+            "    case 'class name': return document.getElementsByClassName(op.selector)[0] || null;" +
+            "    case 'tag name': return document.getElementsByTagName(op.selector)[0] || null;" +
+            "  }" +
+            "  return null;" +
+            "}" +
+            "function fire(el, type) { el.dispatchEvent(new Event(type, { bubbles: true })); }" +
+            "function setValue(el, value) {" +
+            "  var proto = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;" +
+            "  Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, value);" +
+            "}" +
+            "function norm(s) { return (s || '').replace(/\\s+/g, ' ').trim(); }" +
+            "for (var i = 0; i < ops.length; i++) {" +
+            "  var op = ops[i], r = { ok: false, error: null, element: null };" +
+            "  try {" +
+            "    var el = locate(op);" +
+            "    if (!el) { r.error = 'element not found'; results.push(r); continue; }" +
+            "    if (el.getClientRects().length === 0) { r.error = 'element not visible'; results.push(r); continue; }" +
+            "    if (el.disabled) { r.error = 'element disabled'; results.push(r); continue; }" +
+            "    var textual = el instanceof HTMLInputElement || el instanceof HTMLTextAreaElement;" +
+            "    switch (op.kind) {" +
+            "      case 'TYPE':" +
+            "        if (textual) { setValue(el, ''); fire(el, 'input'); }" +
+            "        r.element = el; r.ok = true; break;" +
+            "      case 'TEXT':" +
+            "        if (!textual || el.readOnly) { r.error = 'not an editable input'; r.element = el; break; }" +
+            "        el.focus(); setValue(el, op.value); fire(el, 'input'); fire(el, 'change');" +
+            "        r.ok = el.value === op.value;" +
+            "        if (!r.ok) { r.error = 'value not applied'; r.element = el; }" +
+            "        break;" +
+            "      case 'SELECT_TEXT': case 'SELECT_VALUE': case 'SELECT_INDEX':" +
+            "        if (!(el instanceof HTMLSelectElement)) { r.error = 'not a select'; break; }" +
+            "        var index = -1;" +
+            "        for (var j = 0; j < el.options.length && index < 0; j++) {" +
+            "          var o = el.options[j];" +
+            "          if ((op.kind === 'SELECT_TEXT' && norm(o.text) === norm(op.value))" +
+            "              || (op.kind === 'SELECT_VALUE' && o.value === op.value)" +
+            "              || (op.kind === 'SELECT_INDEX' && j === parseInt(op.value, 10))) index = j;" +
+            "        }" +
+            "        if (index < 0) { r.error = 'no option ' + op.value; break; }" +
+            "        if (el.selectedIndex !== index) { el.selectedIndex = index; fire(el, 'input'); fire(el, 'change'); }" +
+            "        r.ok = true; break;" +
+            "      case 'CHECK':" +
+            "        var want = op.value === 'true';" +
+            "        if (el.checked !== want) el.click();" +
+            "        r.ok = el.checked === want;" +
+            "        if (!r.ok) r.error = 'checked state not applied';" +
+            "        break;" +
+            "    }" +
+            "  } catch (e) { r.error = String(e && e.message || e); }" +
+            "  results.push(r);" +
+            "}" +
+            "return results;";
+
+    private final List<Field> fields = new ArrayList<>();
+    private boolean nativeFallback = true;
+
+    public static FormBatch create() {
+        return new FormBatch();
+    }
+
+    // Sets the value through the DOM and fires input/change
+    public FormBatch text(By locator, String value) {
+        return add(locator, Kind.TEXT, value);
+    }
+
+    // Clears the field and types the value as real keystrokes (for masked inputs, key handlers, ...)
+    public FormBatch type(By locator, String value) {
+        return add(locator, Kind.TYPE, value);
+    }
+
+    public FormBatch selectByVisibleText(By locator, String visibleText) {
+        return add(locator, Kind.SELECT_TEXT, visibleText);
+    }
+
+    public FormBatch selectByValue(By locator, String value) {
+        return add(locator, Kind.SELECT_VALUE, value);
+    }
+
+    public FormBatch selectByIndex(By locator, int index) {
+        return add(locator, Kind.SELECT_INDEX, String.valueOf(index));
+    }
+
+    public FormBatch check(By locator, boolean checked) {
+        return add(locator, Kind.CHECK, String.valueOf(checked));
+    }
+
+    // When true (default) text fields the script could not set are retried with native keystrokes
+    public FormBatch nativeFallback(boolean enabled) {
+        this.nativeFallback = enabled;
+        return this;
+    }
+
+    public List<Field> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    private FormBatch add(By locator, Kind kind, String value) {
+        if (locator == null || value == null) {
+            throw new IllegalArgumentException("Locator and value are required for " + kind);
+        }
+        fields.add(new Field(locator, kind, value));
+        return this;
+    }
+
+    // One executeScript for every field, plus (only if needed) one Actions sequence for keystroke fields
+    public Result apply(WebDriver driver) {
+        FieldResult[] results = new FieldResult[fields.size()];
+        List<Map<String, Object>> ops = new ArrayList<>();
+        List<Integer> opIndexes = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            Map<String, Object> op = new HashMap<>();
+            op.put("kind", field.kind.name());
+            op.put("value", field.value);
+            By.Remotable.Parameters parameters = remoteParameters(field.locator);
+            if (parameters != null) {
+                op.put("using", parameters.using());
+                op.put("selector", String.valueOf(parameters.value()));
+            } else {
+                try {
+                    op.put("element", driver.findElement(field.locator));
+                } catch (WebDriverException e) {
+                    results[i] = new FieldResult(field, false, false, "element not found: " + e.getMessage());
+                    continue;
+                }
+            }
+            ops.add(op);
+            opIndexes.add(i);
+        }
+
+        Map<Integer, WebElement> keystrokes = new LinkedHashMap<>();
+        if (!ops.isEmpty()) {
+            List<?> scriptResults;
+            try {
+                scriptResults = (List<?>) ((JavascriptExecutor) driver).executeScript(FILL_SCRIPT, ops);
+            } catch (WebDriverException e) {
+                for (int index : opIndexes) {
+                    results[index] = new FieldResult(fields.get(index), false, false, "script failed: " + e.getMessage());
+                }
+                return new Result(Arrays.asList(results));
+            }
+            for (int k = 0; k < opIndexes.size(); k++) {
+                int index = opIndexes.get(k);
+                Field field = fields.get(index);
+                Map<?, ?> r = (Map<?, ?>) scriptResults.get(k);
+                boolean ok = Boolean.TRUE.equals(r.get("ok"));
+                Object element = r.get("element");
+                boolean retry = field.kind == Kind.TEXT && !ok && nativeFallback && element instanceof WebElement;
+                if (field.kind == Kind.TYPE && ok || retry) {
+                    keystrokes.put(index, (WebElement) element);
+                } else {
+                    results[index] = new FieldResult(field, ok, false, ok ? null : String.valueOf(r.get("error")));
+                }
+            }
+        }
+
+        if (!keystrokes.isEmpty()) {
+            typeAll(driver, keystrokes, results);
+        }
+        return new Result(Arrays.asList(results));
+    }
+
+    private void typeAll(WebDriver driver, Map<Integer, WebElement> keystrokes, FieldResult[] results) {
+        Actions actions = new Actions(driver);
+        for (Map.Entry<Integer, WebElement> entry : keystrokes.entrySet()) {
+            Field field = fields.get(entry.getKey());
+            if (field.kind == Kind.TEXT) {
+                // fallback fields were not touched by the script, so clear them the usual way
+                try {
+                    entry.getValue().clear();
+                } catch (WebDriverException ignored) {
+                    // contenteditable and friends cannot be cleared; the keystrokes still go in
+                }
+            }
+            actions.click(entry.getValue()).sendKeys(field.value);
+        }
+        String error = null;
+        try {
+            actions.perform();
+        } catch (WebDriverException e) {
+            error = "keystrokes failed: " + e.getMessage();
+        }
+        for (Integer index : keystrokes.keySet()) {
+            results[index] = new FieldResult(fields.get(index), error == null, true, error);
+        }
+    }
+
+    private static By.Remotable.Parameters remoteParameters(By locator) {
+        if (locator instanceof By.Remotable) {
+            By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+            if (SCRIPT_STRATEGIES.contains(parameters.using()) && parameters.value() instanceof String) {
+                return parameters;
+            }
+        }
+        return null;
+    }
+
+    public static class Field {
+        private final By locator;
+        private final Kind kind;
+        private final String value;
+
+        Field(By locator, Kind kind, String value) {
+            this.locator = locator;
+            this.kind = kind;
+            this.value = value;
+        }
+
+        public By getLocator() {
+            return locator;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    public static class FieldResult {
+        private final Field field;
+        private final boolean success;
+        private final boolean keystrokes;
+        private final String error;
+
+        FieldResult(Field field, boolean success, boolean keystrokes, String error) {
+            this.field = field;
+            this.success = success;
+            this.keystrokes = keystrokes;
+            this.error = error;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        // True when the value was typed through Actions rather than set by the script
+        public boolean isTypedWithKeystrokes() {
+            return keystrokes;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return field.kind + " " + field.locator + (success ? " ok" : " failed: " + error)
+                    + (keystrokes ? " (keystrokes)" : "");
+        }
+    }
+
+    public static class Result {
+        private final List<FieldResult> fields;
+
+        Result(List<FieldResult> fields) {
+            this.fields = Collections.unmodifiableList(fields);
+        }
+
+        public List<FieldResult> getFields() {
+            return fields;
+        }
+
+        public boolean isSuccess() {
+            return getFailures().isEmpty();
+        }
+
+        public List<FieldResult> getFailures() {
+            List<FieldResult> failures = new ArrayList<>();
+            for (FieldResult field : fields) {
+                if (!field.isSuccess()) {
+                    failures.add(field);
+                }
+            }
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return fields.toString();
+        }
+    }
+}
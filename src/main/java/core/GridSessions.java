@@ -0,0 +1,262 @@
+package core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.net.ConnectException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Remote execution against one or more Selenium Grid / standalone endpoints.
+//   GRID_URLS              comma-separated hub or standalone URLs; remote mode is on when set
+//   GRID_CONNECT_TIMEOUT_S connection timeout (default 10)
+//   GRID_READ_TIMEOUT_S    read timeout, which also bounds the wait in the Grid's session queue (default 300)
+//   GRID_RETRIES           extra attempts when no endpoint has capacity or one is unreachable (default 3)
+//   GRID_COOLDOWN_MS       how long a full or unreachable endpoint is skipped (default 5000)
+// Every session to an endpoint shares one HTTP client (Selenium's JDK client, built from the endpoint's
+// ClientConfig), so connections are pooled and kept alive across sessions and HTTP/2 is negotiated where
+// the endpoint offers it. Quitting a session leaves the shared client open.
+// New sessions go to the endpoint with the fewest sessions open or being created from this JVM.
+public class GridSessions {
+
+    private static final Logger log = LogManager.getLogger(GridSessions.class);
+
+    // Held strongly so an endpoint's count only drops through release(), which every quit path calls
+    private static final Map<WebDriver, Endpoint> sessions = new ConcurrentHashMap<>();
+    private static volatile List<Endpoint> endpoints;
+
+    public static boolean isEnabled() {
+        return !ConfigManager.getList("GRID_URLS").isEmpty();
+    }
+
+    public static WebDriver open(Capabilities options) {
+        int retries = ConfigManager.getInt("GRID_RETRIES", 3);
+        long cooldown = ConfigManager.getLong("GRID_COOLDOWN_MS", 5000L);
+        WebDriverException last = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            if (attempt > 0) {
+                sleep(Math.min(500L << (attempt - 1), 8000L));
+            }
+            Endpoint endpoint = select();
+            endpoint.inFlight.incrementAndGet();
+            boolean opened = false;
+            try {
+                HttpCommandExecutor executor = new HttpCommandExecutor(Collections.emptyMap(), endpoint.config, endpoint::newClient);
+                RemoteWebDriver remote = new RemoteWebDriver(executor, options);
+                WebDriver driver = new Augmenter().augment(remote);
+                sessions.put(driver, endpoint);
+                opened = true;
+                return driver;
+            } catch (WebDriverException e) {
+                if (!isCapacityError(e) && !isUnreachable(e)) {
+                    throw e;
+                }
+                last = e;
+            } finally {
+                if (!opened) {
+                    endpoint.inFlight.decrementAndGet();
+                }
+            }
+            endpoint.coolDownUntil = System.currentTimeMillis() + cooldown;
+            log.warn("Grid endpoint {} unavailable (attempt {}): {}", endpoint.url, attempt + 1, firstLine(last.getMessage()));
+        }
+        throw new SessionNotCreatedException("No Grid endpoint could create a " + options.getBrowserName()
+                + " session after " + (retries + 1) + " attempt(s)", last);
+    }
+
+    // Moves the endpoint bookkeeping to the decorated driver BrowserFactory hands out
+    static void alias(WebDriver created, WebDriver handedOut) {
+        if (created != handedOut) {
+            Endpoint endpoint = sessions.remove(created);
+            if (endpoint != null) {
+                sessions.put(handedOut, endpoint);
+            }
+        }
+    }
+
+    // Called after quit so the endpoint's slot counts as free again
+    static void release(WebDriver driver) {
+        Endpoint endpoint = sessions.remove(driver);
+        if (endpoint != null) {
+            endpoint.inFlight.decrementAndGet();
+        }
+    }
+
+    // Endpoint URL -> sessions currently open or being created from this JVM
+    public static List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (Endpoint endpoint : endpoints()) {
+            lines.add(endpoint.url + " in-flight=" + endpoint.inFlight.get());
+        }
+        return lines;
+    }
+
+    private static Endpoint select() {
+        List<Endpoint> all = endpoints();
+        long now = System.currentTimeMillis();
+        Endpoint best = null;
+        int ties = 0;
+        for (Endpoint endpoint : all) {
+            if (endpoint.coolDownUntil > now) {
+                continue;
+            }
+            int load = endpoint.inFlight.get();
+            if (best == null || load < best.inFlight.get()) {
+                best = endpoint;
+                ties = 1;
+            } else if (load == best.inFlight.get() && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                // spreads simultaneous launches across equally loaded endpoints
+                best = endpoint;
+            }
+        }
+        if (best == null) {
+            // everything is cooling down: take the one that becomes available first
+            for (Endpoint endpoint : all) {
+                if (best == null || endpoint.coolDownUntil < best.coolDownUntil) {
+                    best = endpoint;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static List<Endpoint> endpoints() {
+        List<Endpoint> current = endpoints;
+        if (current == null) {
+            synchronized (GridSessions.class) {
+                if (endpoints == null) {
+                    ClientConfig base = ClientConfig.defaultConfig()
+                            .connectionTimeout(Duration.ofSeconds(ConfigManager.getLong("GRID_CONNECT_TIMEOUT_S", 10L)))
+                            .readTimeout(Duration.ofSeconds(ConfigManager.getLong("GRID_READ_TIMEOUT_S", 300L)));
+                    List<Endpoint> created = new ArrayList<>();
+                    for (String url : ConfigManager.getList("GRID_URLS")) {
+                        created.add(new Endpoint(toUrl(url), base));
+                    }
+                    if (created.isEmpty()) {
+                        throw new IllegalStateException("GRID_URLS is not set");
+                    }
+                    endpoints = Collections.unmodifiableList(created);
+                }
+                current = endpoints;
+            }
+        }
+        return current;
+    }
+
+    // Grid answers with SessionNotCreatedException when the queue times out or no node matches yet; a busy
+    // hub or a proxy in front of it may instead answer 503/429, which arrives as a plain WebDriverException
+    private static boolean isCapacityError(WebDriverException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = String.valueOf(cause.getMessage()).toLowerCase();
+            if (message.contains("capacity") || message.contains("timed out") || message.contains("timeout")
+                    || message.contains("no nodes") || message.contains("queue") || message.contains("maximum")
+                    || message.contains("503") || message.contains("service unavailable")
+                    || message.contains("429") || message.contains("too many requests")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnreachable(WebDriverException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static URL toUrl(String url) {
+        try {
+            return new URI(url.trim()).toURL();
+        } catch (URISyntaxException | MalformedURLException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid GRID_URLS entry: " + url, e);
+        }
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SessionNotCreatedException("Interrupted while waiting for Grid capacity");
+        }
+    }
+
+    private static class Endpoint {
+        private final URL url;
+        private final ClientConfig config;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long coolDownUntil;
+        private HttpClient client;
+
+        Endpoint(URL url, ClientConfig base) {
+            this.url = url;
+            this.config = base.baseUrl(url);
+        }
+
+        // Hands every session a view of the endpoint's one client; HttpCommandExecutor closes its client
+        // on quit, so the view's close() must not reach the shared one
+        synchronized HttpClient newClient(ClientConfig sessionConfig) {
+            if (client == null) {
+                client = HttpClient.Factory.createDefault().createClient(config);
+            }
+            return new SharedClient(client);
+        }
+    }
+
+    private static class SharedClient implements HttpClient {
+        private final HttpClient delegate;
+
+        SharedClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return delegate.execute(request);
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            return delegate.openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            // the endpoint's client stays open for the next session
+        }
+    }
+}
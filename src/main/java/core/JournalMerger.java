@@ -0,0 +1,288 @@
+package core;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Combines the ResultJournal files of many workers (forks or machines) into one Extent HTML report.
+// Journals are read line by line and interleaved by timestamp, so only one pending line per worker is
+// held besides the report model itself. Torn lines from killed workers are skipped.
+// Journals of other runs are ignored: with a run id (--run=<id>, or RUN_ID) only that run is merged,
+// otherwise only the most recent journal of each worker.
+//
+//   java -cp <test classpath> core.JournalMerger [--run=<id>] "Automation Reports/ExtentReport-merged.html" "Automation Reports/journal"
+//
+// Screenshot paths are relative to the report, so write the merged report next to the worker reports.
+public class JournalMerger {
+
+    private static final Logger log = LogManager.getLogger(JournalMerger.class);
+
+    public static void main(String[] args) throws IOException {
+        String run = null;
+        int first = 0;
+        if (args.length > 0 && args[0].startsWith("--run=")) {
+            run = args[0].substring("--run=".length());
+            first = 1;
+        }
+        if (args.length - first < 2) {
+            System.err.println("Usage: JournalMerger [--run=<id>] <output.html> <journal file or directory>...");
+            System.exit(2);
+        }
+        List<Path> inputs = new ArrayList<>();
+        for (int i = first + 1; i < args.length; i++) {
+            inputs.add(Paths.get(args[i]));
+        }
+        Summary summary = merge(inputs, Paths.get(args[first]), run);
+        System.out.println("Merged " + summary);
+    }
+
+    // Inputs may be journal files or directories of *.jsonl journals; the run is RUN_ID when set
+    public static Summary merge(List<Path> inputs, Path outputHtml) throws IOException {
+        String run = ConfigManager.getString("RUN_ID");
+        return merge(inputs, outputHtml, run == null || run.isEmpty() ? null : run);
+    }
+
+    // run == null merges the most recent journal of every worker
+    public static Summary merge(List<Path> inputs, Path outputHtml, String run) throws IOException {
+        List<Path> journals = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> files = Files.list(input)) {
+                    journals.addAll(files.filter(f -> f.toString().endsWith(".jsonl")).sorted().collect(Collectors.toList()));
+                }
+            } else {
+                journals.add(input);
+            }
+        }
+
+        Summary summary = new Summary();
+        List<Cursor> selected = select(journals, run, summary);
+        summary.workers = selected.size();
+
+        ExtentSparkReporter reporter = new ExtentSparkReporter(outputHtml.toString());
+        reporter.config().setDocumentTitle("Automation Report");
+        reporter.config().setReportName("Automation Test Results (" + selected.size() + " workers)");
+        reporter.config().setTimeStampFormat("EEEE,MMMM dd, hh:mm a '('zzz')'");
+        ExtentReports extent = new ExtentReports();
+        extent.attachReporter(reporter);
+
+        Map<String, ExtentTest> tests = new HashMap<>();
+        Map<String, Long> lastEvent = new HashMap<>();
+        Map<String, Set<String>> systemInfo = new LinkedHashMap<>();
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(
+                Comparator.comparingLong((Cursor c) -> c.current.path("ts").asLong())
+                        .thenComparingLong(c -> c.current.path("seq").asLong()));
+        try {
+            cursors.addAll(selected);
+            while (!cursors.isEmpty()) {
+                Cursor cursor = cursors.poll();
+                apply(cursor.current, extent, tests, lastEvent, systemInfo, summary);
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                } else {
+                    cursor.close();
+                }
+            }
+        } finally {
+            for (Cursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+
+        for (Map.Entry<String, Long> entry : lastEvent.entrySet()) {
+            tests.get(entry.getKey()).getModel().setEndTime(new Date(entry.getValue()));
+        }
+        for (Map.Entry<String, Set<String>> entry : systemInfo.entrySet()) {
+            extent.setSystemInfo(entry.getKey(), String.join(", ", entry.getValue()));
+        }
+        extent.flush();
+        summary.tests = tests.size();
+        return summary;
+    }
+
+    // Opens every journal at its first event and keeps the ones of the requested run; the rest are closed
+    private static List<Cursor> select(List<Path> journals, String run, Summary summary) throws IOException {
+        Map<String, Cursor> latest = new LinkedHashMap<>();
+        List<Cursor> selected = new ArrayList<>();
+        try {
+            for (Path journal : journals) {
+                Cursor cursor = new Cursor(journal, summary);
+                if (!cursor.advance()) {
+                    cursor.close();
+                    continue;
+                }
+                if (run != null) {
+                    if (run.equals(cursor.current.path("run").asText())) {
+                        selected.add(cursor);
+                    } else {
+                        summary.ignored++;
+                        cursor.close();
+                    }
+                    continue;
+                }
+                String worker = cursor.current.path("worker").asText();
+                Cursor previous = latest.get(worker);
+                if (previous == null) {
+                    latest.put(worker, cursor);
+                } else {
+                    boolean newer = cursor.current.path("ts").asLong() > previous.current.path("ts").asLong();
+                    if (newer) {
+                        latest.put(worker, cursor);
+                    }
+                    summary.ignored++;
+                    (newer ? previous : cursor).close();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            selected.forEach(Cursor::close);
+            latest.values().forEach(Cursor::close);
+            throw e;
+        }
+        selected.addAll(latest.values());
+        return selected;
+    }
+
+    private static void apply(JsonNode event, ExtentReports extent, Map<String, ExtentTest> tests,
+                              Map<String, Long> lastEvent, Map<String, Set<String>> systemInfo, Summary summary) {
+        String type = event.path("type").asText();
+        String id = event.path("id").asText();
+        long ts = event.path("ts").asLong();
+        summary.events++;
+        switch (type) {
+            case "test":
+                ExtentTest test = extent.createTest(event.path("name").asText(), event.path("description").asText(""));
+                test.assignDevice(event.path("worker").asText());
+                test.getModel().setStartTime(new Date(ts));
+                tests.put(id, test);
+                lastEvent.put(id, ts);
+                break;
+            case "log":
+            case "media":
+                ExtentTest target = tests.get(id);
+                if (target == null) {
+                    summary.orphaned++;
+                    return;
+                }
+                Status status = Status.valueOf(event.path("status").asText("INFO"));
+                String details = event.path("details").asText("");
+                if ("media".equals(type)) {
+                    target.log(status, details, MediaEntityBuilder.createScreenCaptureFromPath(event.path("path").asText(), details).build());
+                } else {
+                    target.log(status, details);
+                }
+                lastEvent.put(id, ts);
+                break;
+            case "info":
+                systemInfo.computeIfAbsent(event.path("key").asText(), k -> new LinkedHashSet<>()).add(event.path("value").asText(""));
+                break;
+            default:
+                summary.skipped++;
+        }
+    }
+
+    // Reads one journal lazily, always holding the next parseable event
+    private static class Cursor {
+        private final Path file;
+        private final BufferedReader reader;
+        private final Summary summary;
+        private JsonNode current;
+
+        Cursor(Path file, Summary summary) throws IOException {
+            this.file = file;
+            this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            this.summary = summary;
+        }
+
+        boolean advance() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    current = JsonUtils.getMapper().readTree(line);
+                    return true;
+                } catch (IOException e) {
+                    summary.skipped++;
+                    log.warn("Skipping unreadable line in {}: {}", file, e.getMessage());
+                }
+            }
+            current = null;
+            return false;
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.warn("Error closing journal {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    public static class Summary {
+        private int workers;
+        private int ignored;
+        private int tests;
+        private long events;
+        private long skipped;
+        private long orphaned;
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        // Journals of other runs that were left out
+        public int getIgnored() {
+            return ignored;
+        }
+
+        public int getTests() {
+            return tests;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        // Unreadable lines (e.g. the torn tail of a killed worker) and unknown event types
+        public long getSkipped() {
+            return skipped;
+        }
+
+        // Log events whose test was never started in any journal
+        public long getOrphaned() {
+            return orphaned;
+        }
+
+        @Override
+        public String toString() {
+            return tests + " test(s) from " + workers + " worker journal(s) (" + ignored + " from other runs ignored): "
+                    + events + " events, " + skipped + " skipped, " + orphaned + " orphaned";
+        }
+    }
+}
@@ -1,32 +1,194 @@
 package core;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JsonUtils {
 
+    // One shared, thread-safe mapper; fixtures may contain comments and trailing commas
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS, JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private static final Map<String, JsonPointer> compiledPaths = new ConcurrentHashMap<>();
+
+    // Cache table columns: JSON pointer, node.asText(), node kind; rows are sorted by pointer bytes
+    private static final int POINTER = 0;
+    private static final int TEXT = 1;
+    private static final int KIND = 2;
+    private static final String OBJECT = "o";
+
     private JsonNode rootNode;
+    private CachedTable table;
+    private String lazyFile;
+    // Subtrees streamed out of the source: every node in lazy mode, getNodeAt() on the compiled cache
+    private Map<String, JsonNode> extracted;
+    private String sourceFile;
 
-    // Constructor to load the JSON file
+    // Constructor to load the JSON file; with DATA_CACHE=true values are served from the compiled cache
     public JsonUtils(String filePath) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        rootNode = objectMapper.readTree(new File(filePath));
+        this(filePath, DataCache.isEnabled());
+    }
+
+    public JsonUtils(String filePath, boolean useCache) throws IOException {
+        if (useCache) {
+            table = DataCache.load(filePath, "json", () -> compile(MAPPER.readTree(new File(filePath))));
+            sourceFile = filePath;
+            extracted = new ConcurrentHashMap<>();
+        } else {
+            rootNode = MAPPER.readTree(new File(filePath));
+        }
+    }
+
+    private JsonUtils(String filePath, Map<String, JsonNode> extracted) {
+        this.lazyFile = filePath;
+        this.extracted = extracted;
+    }
+
+    // Opens a file without parsing it; each path is streamed out of the file on first use and remembered
+    public static JsonUtils lazy(String filePath) {
+        if (!new File(filePath).isFile()) {
+            throw new IllegalArgumentException("JSON file not found: " + filePath);
+        }
+        return new JsonUtils(filePath, new ConcurrentHashMap<>());
+    }
+
+    public static ObjectMapper getMapper() {
+        return MAPPER;
+    }
+
+    // Compiles "/a/b/0" (JSON Pointer), "a.b[0]" (dotted) or a plain top-level key; compiled paths are cached
+    public static JsonPointer compilePath(String path) {
+        return compiledPaths.computeIfAbsent(path, JsonUtils::parsePath);
+    }
+
+    // Method to get the text of the node at a path, or null if the path does not exist
+    public String getValueAt(String path) {
+        JsonPointer pointer = compilePath(path);
+        if (table != null) {
+            int row = findRow(pointer.toString());
+            return row < 0 ? null : table.getCell(row, TEXT);
+        }
+        JsonNode node = getNodeAt(path);
+        return node.isMissingNode() ? null : node.asText();
+    }
+
+    // Method to get the node at a path; MissingNode if absent. The compiled cache only keeps text, so on
+    // the cache the subtree is streamed out of the source file once and remembered, as in lazy mode.
+    public JsonNode getNodeAt(String path) {
+        JsonPointer pointer = compilePath(path);
+        if (table != null) {
+            return findRow(pointer.toString()) < 0 ? MAPPER.missingNode() : extractOnce(sourceFile, pointer.toString());
+        }
+        if (lazyFile != null) {
+            return extractOnce(lazyFile, pointer.toString());
+        }
+        return rootNode.at(pointer);
+    }
+
+    private JsonNode extractOnce(String filePath, String pointer) {
+        return extracted.computeIfAbsent(pointer, key -> {
+            try {
+                return extract(filePath, key).get(key);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Method to get the fields of the object at a path as a Map
+    public Map<String, String> getDataAt(String path) {
+        JsonPointer pointer = compilePath(path);
+        if (table != null) {
+            return cachedChildren(pointer.toString());
+        }
+        return fieldsAsText(getNodeAt(path));
+    }
+
+    // Streams a file once and returns only the requested subtrees, keyed by the path as given.
+    // Everything outside those paths is skipped without building a tree.
+    public static Map<String, JsonNode> extract(String filePath, String... paths) throws IOException {
+        Map<String, String> wanted = new LinkedHashMap<>();
+        for (String path : paths) {
+            wanted.put(path, compilePath(path).toString());
+        }
+        Set<String> pending = new LinkedHashSet<>(wanted.values());
+        Map<String, JsonNode> found = new HashMap<>();
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(new File(filePath))) {
+            JsonToken token;
+            while (!pending.isEmpty() && (token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME || token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                    continue;
+                }
+                JsonStreamContext context = parser.getParsingContext();
+                if (token.isStructStart() && context.getParent() != null) {
+                    context = context.getParent();
+                }
+                String current = context.pathAsPointer().toString();
+                if (pending.contains(current)) {
+                    JsonNode node = MAPPER.readTree(parser);
+                    // Requested paths nested inside this subtree are answered from it directly
+                    for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+                        String pointer = it.next();
+                        if (pointer.equals(current) || pointer.startsWith(current + "/")) {
+                            found.put(pointer, node.at(pointer.substring(current.length())));
+                            it.remove();
+                        }
+                    }
+                } else if (token.isStructStart() && !isAncestorOfAny(current, pending)) {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        Map<String, JsonNode> result = new LinkedHashMap<>();
+        wanted.forEach((path, pointer) -> result.put(path, found.getOrDefault(pointer, MAPPER.missingNode())));
+        return result;
     }
 
     // Method to get data by a specific key
     public String getValue(String key) {
+        if (lazyFile != null) {
+            return getValueAt("/" + escape(key));
+        }
+        if (table != null) {
+            int row = findRow("/" + escape(key));
+            return row < 0 ? null : table.getCell(row, TEXT);
+        }
         JsonNode valueNode = rootNode.path(key);
         return valueNode.isMissingNode() ? null : valueNode.asText();
     }
 
     // Method to get all data as a Map
     public Map<String, String> getAllData() {
+        if (table != null) {
+            return cachedChildren("");
+        }
+        if (lazyFile != null) {
+            return fieldsAsText(getNodeAt(""));
+        }
         Map<String, String> jsonData = new HashMap<>();
         Iterator<Map.Entry<String, JsonNode>> fields = rootNode.fields();
         while (fields.hasNext()) {
@@ -38,6 +200,12 @@ public class JsonUtils {
 
     // Method to get nested data as a Map
     public Map<String, String> getNestedData(String parentKey) {
+        if (table != null) {
+            return cachedChildren("/" + escape(parentKey));
+        }
+        if (lazyFile != null) {
+            return fieldsAsText(getNodeAt("/" + escape(parentKey)));
+        }
         Map<String, String> nestedData = new HashMap<>();
         JsonNode parentNode = rootNode.path(parentKey);
 
@@ -50,4 +218,120 @@ public class JsonUtils {
         }
         return nestedData;
     }
+
+    private static Map<String, String> fieldsAsText(JsonNode node) {
+        Map<String, String> data = new HashMap<>();
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                data.put(field.getKey(), field.getValue().asText());
+            }
+        }
+        return data;
+    }
+
+    private static boolean isAncestorOfAny(String pointer, Set<String> pending) {
+        for (String candidate : pending) {
+            if (candidate.startsWith(pointer + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static JsonPointer parsePath(String path) {
+        if (path.isEmpty() || path.startsWith("/")) {
+            return JsonPointer.compile(path);
+        }
+        StringBuilder pointer = new StringBuilder();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '.' || c == '[') {
+                appendToken(pointer, token);
+            } else if (c == ']') {
+                appendToken(pointer, token);
+                if (i + 1 < path.length() && path.charAt(i + 1) == '.') {
+                    i++;
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        appendToken(pointer, token);
+        return JsonPointer.compile(pointer.toString());
+    }
+
+    private static void appendToken(StringBuilder pointer, StringBuilder token) {
+        if (token.length() > 0) {
+            pointer.append('/').append(escape(token.toString()));
+            token.setLength(0);
+        }
+    }
+
+    private int findRow(String pointer) {
+        byte[] key = pointer.getBytes(StandardCharsets.UTF_8);
+        int row = table.lowerBound(POINTER, key);
+        return row < table.getRowCount() && table.compareCell(row, POINTER, key) == 0 ? row : -1;
+    }
+
+    // Direct children of an object node, read from the contiguous pointer range "<parent>/..."
+    private Map<String, String> cachedChildren(String parentPointer) {
+        Map<String, String> children = new HashMap<>();
+        int parent = findRow(parentPointer);
+        if (parent < 0 || !OBJECT.equals(table.getCell(parent, KIND))) {
+            return children;
+        }
+        byte[] prefix = (parentPointer + "/").getBytes(StandardCharsets.UTF_8);
+        for (int row = table.lowerBound(POINTER, prefix); row < table.getRowCount() && table.cellStartsWith(row, POINTER, prefix); row++) {
+            String name = table.getCell(row, POINTER).substring(parentPointer.length() + 1);
+            if (name.indexOf('/') < 0) {
+                children.put(unescape(name), table.getCell(row, TEXT));
+            }
+        }
+        return children;
+    }
+
+    private static List<String[]> compile(JsonNode root) {
+        List<String[]> rows = new ArrayList<>();
+        flatten("", root, rows);
+        rows.sort((a, b) -> compareBytes(a[POINTER].getBytes(StandardCharsets.UTF_8), b[POINTER].getBytes(StandardCharsets.UTF_8)));
+        return rows;
+    }
+
+    private static void flatten(String pointer, JsonNode node, List<String[]> rows) {
+        rows.add(new String[]{pointer, node.asText(), node.isObject() ? OBJECT : node.isArray() ? "a" : "v"});
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                flatten(pointer + "/" + escape(field.getKey()), field.getValue(), rows);
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                flatten(pointer + "/" + i, node.get(i), rows);
+            }
+        }
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    // JSON Pointer (RFC 6901) escaping of a single key
+    private static String escape(String key) {
+        return key.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
 }
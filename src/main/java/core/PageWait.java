@@ -0,0 +1,168 @@
+package core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// Element waits that return as soon as the condition holds in the page. In "event" mode one
+// executeAsyncScript call installs a MutationObserver/IntersectionObserver and resolves when the
+// element becomes visible/clickable. When async scripts are unsupported, or the element is not
+// attached yet, it falls back to adaptive polling: 10 ms first, doubling up to 500 ms.
+public class PageWait {
+
+    private static final Logger log = LogManager.getLogger(PageWait.class);
+
+    public enum Mode { EVENT, ADAPTIVE }
+
+    public enum Condition { VISIBLE, CLICKABLE }
+
+    private static final long MAX_SCRIPT_MILLIS = 20_000L;
+    private static final long FIRST_POLL_MILLIS = 10L;
+    private static final long MAX_POLL_MILLIS = 500L;
+
+    private static final String OBSERVE_SCRIPT =
+            "var el = arguments[0], cond = arguments[1], limit = arguments[2], done = arguments[arguments.length - 1];"
+            + "var visible = function (e) {"
+            + "  if (!e.isConnected) { return false; }"
+            + "  for (var p = e; p; p = p.parentElement) {"
+            + "    var s = window.getComputedStyle(p);"
+            + "    if (s.display === 'none' || parseFloat(s.opacity) === 0) { return false; }"
+            + "  }"
+            + "  var style = window.getComputedStyle(e), rect = e.getBoundingClientRect();"
+            + "  return style.visibility !== 'hidden' && style.visibility !== 'collapse' && rect.width > 0 && rect.height > 0;"
+            + "};"
+            + "var ok = function () { return visible(el) && (cond !== 'CLICKABLE' || !el.disabled); };"
+            + "if (ok()) { done(true); return; }"
+            + "var finished = false, observers = [], timer, poll;"
+            + "var finish = function (value) {"
+            + "  if (finished) { return; }"
+            + "  finished = true;"
+            + "  observers.forEach(function (o) { o.disconnect(); });"
+            + "  document.removeEventListener('transitionend', check, true);"
+            + "  document.removeEventListener('animationend', check, true);"
+            + "  clearTimeout(timer); clearInterval(poll);"
+            + "  done(value);"
+            + "};"
+            + "var check = function () { if (!el.isConnected) { finish('stale'); } else if (ok()) { finish(true); } };"
+            + "var mutations = new MutationObserver(check);"
+            + "mutations.observe(document.documentElement, { attributes: true, childList: true, subtree: true });"
+            + "observers.push(mutations);"
+            + "if (window.IntersectionObserver) { var io = new IntersectionObserver(check); io.observe(el); observers.push(io); }"
+            + "document.addEventListener('transitionend', check, true);"
+            + "document.addEventListener('animationend', check, true);"
+            + "poll = setInterval(check, 250);"
+            + "timer = setTimeout(function () { finish(false); }, limit);";
+
+    private static volatile String warnedMode;
+
+    private final WebDriver driver;
+    private final Duration timeout;
+    private final Mode mode;
+    private volatile boolean asyncSupported = true;
+
+    public PageWait(WebDriver driver, Duration timeout, Mode mode) {
+        this.driver = driver;
+        this.timeout = timeout;
+        this.mode = mode;
+    }
+
+    // WAIT_MODE=event (default) or adaptive; unknown values fall back to event with a warning
+    public static Mode configuredMode() {
+        String value = ConfigManager.getString("WAIT_MODE", "event").trim();
+        for (Mode mode : Mode.values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        if (!value.equals(warnedMode)) {
+            warnedMode = value;
+            log.warn("Unknown WAIT_MODE '{}' (expected event or adaptive), using event", value);
+        }
+        return Mode.EVENT;
+    }
+
+    // Waits for the condition; fallback is the equivalent ExpectedCondition used when polling
+    public WebElement until(WebElement element, Condition condition, ExpectedCondition<WebElement> fallback) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (mode == Mode.EVENT && asyncSupported && driver instanceof JavascriptExecutor) {
+            try {
+                while (true) {
+                    long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+                    if (remaining <= 0) {
+                        throw timeout(fallback);
+                    }
+                    Object result = ((JavascriptExecutor) driver).executeAsyncScript(OBSERVE_SCRIPT, element,
+                            condition.name(), Math.min(remaining, MAX_SCRIPT_MILLIS));
+                    if (Boolean.TRUE.equals(result)) {
+                        return element;
+                    }
+                    if ("stale".equals(result)) {
+                        break;
+                    }
+                }
+            } catch (NotFoundException | StaleElementReferenceException | ScriptTimeoutException e) {
+                // Element not attached yet, replaced, or the session's script timeout is shorter: poll instead
+            } catch (TimeoutException e) {
+                throw e;
+            } catch (WebDriverException e) {
+                // A script error or a navigation only affects this wait; event mode stays on unless the
+                // driver cannot run async scripts at all
+                if (isAsyncUnsupported(e)) {
+                    asyncSupported = false;
+                }
+            }
+        }
+        return poll(deadline, fallback);
+    }
+
+    private WebElement poll(long deadline, ExpectedCondition<WebElement> fallback) {
+        long interval = FIRST_POLL_MILLIS;
+        while (true) {
+            try {
+                WebElement result = fallback.apply(driver);
+                if (result != null) {
+                    return result;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                // keep waiting, as WebDriverWait does
+            }
+            long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+            if (remaining <= 0) {
+                throw timeout(fallback);
+            }
+            try {
+                Thread.sleep(Math.min(interval, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException(e);
+            }
+            interval = Math.min(interval * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    private static boolean isAsyncUnsupported(WebDriverException e) {
+        if (e instanceof UnsupportedCommandException) {
+            return true;
+        }
+        String message = String.valueOf(e.getMessage()).toLowerCase(Locale.ROOT);
+        return message.contains("unknown command") || message.contains("not implemented")
+                || message.contains("not supported") || message.contains("unsupported");
+    }
+
+    private TimeoutException timeout(ExpectedCondition<WebElement> fallback) {
+        return new TimeoutException("Expected condition failed: waiting for " + fallback
+                + " (tried for " + timeout.getSeconds() + " second(s))");
+    }
+}
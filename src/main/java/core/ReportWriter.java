@@ -0,0 +1,141 @@
+package core;
+
+import com.aventstack.extentreports.ExtentReports;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Single background thread that owns every mutation of the ExtentReports instance. Test threads
+// only enqueue events on a lock-free queue. Flush requests are coalesced: the report is rewritten
+// at most every REPORT_FLUSH_INTERVAL_MS, or once REPORT_FLUSH_EVENTS events have been applied, and
+// a final flush always runs at JVM shutdown. An idle writer parks until the next event arrives.
+class ReportWriter {
+
+    private static final Logger log = LogManager.getLogger(ReportWriter.class);
+
+    private final Supplier<ExtentReports> extent;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final long flushIntervalNanos;
+    private final int flushEventThreshold;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long lastFlush = System.nanoTime();
+    private int eventsSinceFlush;
+
+    ReportWriter(Supplier<ExtentReports> extent) {
+        this.extent = extent;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(ConfigManager.getLong("REPORT_FLUSH_INTERVAL_MS", 5000L));
+        this.flushEventThreshold = ConfigManager.getInt("REPORT_FLUSH_EVENTS", 500);
+        this.thread = new Thread(this::run, "extent-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "extent-writer-shutdown"));
+    }
+
+    void submit(Runnable event) {
+        queue.add(event);
+        LockSupport.unpark(thread);
+    }
+
+    // Submits an event and wakes the writer so the caller can wait on the result promptly
+    <T> CompletableFuture<T> submitAndWake(Supplier<T> event) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        queue.add(() -> {
+            try {
+                result.complete(event.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        LockSupport.unpark(thread);
+        return result;
+    }
+
+    void requestFlush() {
+        flushRequested.set(true);
+        LockSupport.unpark(thread);
+    }
+
+    // Applies everything queued so far and rewrites the report before returning
+    void flushNow() {
+        if (Thread.currentThread() == thread || !thread.isAlive()) {
+            drain();
+            flush();
+            return;
+        }
+        submitAndWake(() -> {
+            flush();
+            return null;
+        }).join();
+    }
+
+    void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            boolean applied = drain();
+            if (flushRequested.get()) {
+                long untilFlush = flushIntervalNanos - (System.nanoTime() - lastFlush);
+                if (eventsSinceFlush >= flushEventThreshold || untilFlush <= 0) {
+                    flush();
+                } else if (!applied) {
+                    // A coalesced flush is pending: sleep until it is due unless an event comes first
+                    LockSupport.parkNanos(untilFlush);
+                }
+            } else if (!applied) {
+                LockSupport.park();
+            }
+        }
+        drain();
+        flush();
+    }
+
+    private boolean drain() {
+        boolean applied = false;
+        Runnable event;
+        while ((event = queue.poll()) != null) {
+            try {
+                event.run();
+            } catch (RuntimeException e) {
+                log.warn("Error applying report event", e);
+            }
+            eventsSinceFlush++;
+            applied = true;
+        }
+        return applied;
+    }
+
+    private void flush() {
+        flushRequested.set(false);
+        eventsSinceFlush = 0;
+        lastFlush = System.nanoTime();
+        ExtentReports reports = extent.get();
+        if (reports == null) {
+            return;
+        }
+        try {
+            reports.flush();
+        } catch (RuntimeException e) {
+            log.error("Error flushing report", e);
+        }
+    }
+}
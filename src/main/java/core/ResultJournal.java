@@ -0,0 +1,197 @@
+package core;
+
+import com.aventstack.extentreports.Status;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Append-only JSONL record of every report event of one worker (JVM), so results survive a killed run
+// and several workers can be merged into one report by JournalMerger. Each run of a worker writes its own
+// <worker>-<run>.jsonl, and test ids include the run, so reruns with the same worker id never collide.
+// One event per line:
+//   {"seq":1,"ts":1718000000000,"worker":"gradle-3","run":"20240610-061320-000","type":"test","id":"gradle-3:20240610-061320-000:1","name":"...","description":"..."}
+//   {"seq":2,"ts":...,"type":"log","id":"gradle-3:20240610-061320-000:1","status":"PASS","details":"..."}
+//   {"seq":3,"ts":...,"type":"media","id":"...","status":"INFO","details":"...","path":"screenshots/ab12.png"}
+//   {"seq":4,"ts":...,"type":"info","key":"Cluster","value":"..."}
+// Lines are buffered in memory and written with one channel write when the buffer fills or every
+// JOURNAL_SYNC_MS (default 1000), followed by an fsync; a crash loses at most that window. A torn
+// last line is skipped by the merger.
+class ResultJournal {
+
+    private static final Logger log = LogManager.getLogger(ResultJournal.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final String worker;
+    private final String run;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong testIds = new AtomicLong();
+    private final ScheduledExecutorService syncer;
+    private volatile boolean failed;
+    private boolean unsynced;
+
+    // A journal left by an earlier JVM with the same worker and run id (e.g. a fixed RUN_ID) is replaced
+    ResultJournal(Path directory, String worker, String run) throws IOException {
+        Files.createDirectories(directory);
+        this.worker = worker;
+        this.run = run;
+        this.file = directory.resolve(worker + "-" + run + ".jsonl");
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        long interval = ConfigManager.getLong("JOURNAL_SYNC_MS", 1000L);
+        this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::sync, interval, interval, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "journal-close"));
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    String getWorker() {
+        return worker;
+    }
+
+    String getRun() {
+        return run;
+    }
+
+    // Returns the journal id of the new test
+    String startTest(String name, String description) {
+        String id = worker + ":" + run + ":" + testIds.incrementAndGet();
+        ObjectNode event = event("test");
+        event.put("id", id);
+        event.put("name", name);
+        event.put("description", description);
+        event.put("thread", Thread.currentThread().getName());
+        append(event);
+        return id;
+    }
+
+    void log(String testId, Status status, String details) {
+        ObjectNode event = event("log");
+        event.put("id", testId);
+        event.put("status", status.name());
+        event.put("details", details);
+        append(event);
+    }
+
+    void media(String testId, Status status, String details, String path) {
+        ObjectNode event = event("media");
+        event.put("id", testId);
+        event.put("status", status.name());
+        event.put("details", details);
+        event.put("path", path);
+        append(event);
+    }
+
+    void systemInfo(String key, String value) {
+        ObjectNode event = event("info");
+        event.put("key", key);
+        event.put("value", value);
+        append(event);
+    }
+
+    private ObjectNode event(String type) {
+        ObjectNode event = JsonUtils.getMapper().createObjectNode();
+        event.put("seq", sequence.incrementAndGet());
+        event.put("ts", System.currentTimeMillis());
+        event.put("worker", worker);
+        event.put("run", run);
+        event.put("type", type);
+        return event;
+    }
+
+    private void append(ObjectNode event) {
+        if (failed) {
+            return;
+        }
+        try {
+            byte[] line = JsonUtils.getMapper().writeValueAsBytes(event);
+            synchronized (this) {
+                if (line.length + 1 > buffer.remaining()) {
+                    writeBuffer();
+                }
+                if (line.length + 1 > buffer.capacity()) {
+                    ByteBuffer large = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n');
+                    large.flip();
+                    while (large.hasRemaining()) {
+                        channel.write(large);
+                    }
+                    unsynced = true;
+                } else {
+                    buffer.put(line).put((byte) '\n');
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    // Caller holds the monitor
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        unsynced = true;
+    }
+
+    void sync() {
+        if (failed) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                if (buffer.position() > 0) {
+                    writeBuffer();
+                }
+                if (!unsynced) {
+                    return;
+                }
+                unsynced = false;
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void close() {
+        syncer.shutdownNow();
+        sync();
+        failed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Error closing result journal {}: {}", file, e.getMessage());
+        }
+    }
+
+    // A broken journal must never fail the tests; the HTML report is still written as usual
+    private void fail(IOException e) {
+        if (!failed) {
+            failed = true;
+            log.error("Result journal {} disabled: {}", file, e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package core;
 
+import com.aventstack.extentreports.Status;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
@@ -8,25 +11,71 @@ import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.function.Function;
 
 public class ReusableLibrary {
 
+    private static final Logger log = LogManager.getLogger(ReusableLibrary.class);
+
     private WebDriver driver;
     private WebDriverWait wait;
+    private PageWait pageWait;
+    private ElementCache elementCache;
 
+    // WAIT_MODE=event (default) or adaptive uses PageWait; WAIT_MODE=polling keeps the plain 500 ms WebDriverWait
     public ReusableLibrary(WebDriver driver) {
         this.driver = driver;
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(30));
+        String waitMode = ConfigManager.getString("WAIT_MODE", "event");
+        if (!"polling".equalsIgnoreCase(waitMode)) {
+            this.pageWait = new PageWait(driver, Duration.ofSeconds(30), PageWait.configuredMode());
+        }
+        this.elementCache = ElementCache.forDriver(driver);
+    }
+
+    // Locator cache shared with every ReusableLibrary on this driver (hit/miss counters live here)
+    public ElementCache getElementCache() {
+        return elementCache;
+    }
+
+    // Cached element for the locator; a miss finds it and waits for visibility
+    public WebElement findVisible(By locator) {
+        return elementCache.get(locator, this::resolveVisible);
+    }
+
+    private WebElement resolveVisible(By locator) {
+        return waitForVisibility(driver.findElement(locator));
+    }
+
+    // Runs the action on the cached element, re-resolving once if it has gone stale
+    private <T> T withVisible(By locator, Function<WebElement, T> action) {
+        return elementCache.withElement(locator, this::resolveVisible, action);
     }
 
     // General Utility Methods
 
     public WebElement waitForVisibility(WebElement element) {
-        return wait.until(ExpectedConditions.visibilityOf(element));
+        long start = System.nanoTime();
+        try {
+            if (pageWait != null) {
+                return pageWait.until(element, PageWait.Condition.VISIBLE, ExpectedConditions.visibilityOf(element));
+            }
+            return wait.until(ExpectedConditions.visibilityOf(element));
+        } finally {
+            CommandMetrics.record(driver, "waitForVisibility", System.nanoTime() - start);
+        }
     }
 
     public WebElement waitForClickability(WebElement element) {
-        return wait.until(ExpectedConditions.elementToBeClickable(element));
+        long start = System.nanoTime();
+        try {
+            if (pageWait != null) {
+                return pageWait.until(element, PageWait.Condition.CLICKABLE, ExpectedConditions.elementToBeClickable(element));
+            }
+            return wait.until(ExpectedConditions.elementToBeClickable(element));
+        } finally {
+            CommandMetrics.record(driver, "waitForClickability", System.nanoTime() - start);
+        }
     }
 
     public void click(WebElement element) {
@@ -38,6 +87,20 @@ public class ReusableLibrary {
         element.sendKeys(text);
     }
 
+    // Fills every field of the batch in one executeScript (plus one Actions sequence for keystroke fields)
+    public FormBatch.Result fillForm(FormBatch batch) {
+        long start = System.nanoTime();
+        try {
+            FormBatch.Result result = batch.apply(driver);
+            for (FormBatch.FieldResult failure : result.getFailures()) {
+                log.warn("Form field not filled: {}", failure);
+            }
+            return result;
+        } finally {
+            CommandMetrics.record(driver, "fillForm", System.nanoTime() - start);
+        }
+    }
+
     public void selectDropdownByVisibleText(WebElement dropdown, String visibleText) {
         Select select = new Select(waitForVisibility(dropdown));
         select.selectByVisibleText(visibleText);
@@ -94,6 +157,18 @@ public class ReusableLibrary {
         return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
     }
 
+    // Writes the screenshot to disk in the background and attaches it to the current test by path
+    public String captureScreenshot(String title) {
+        String path = ScreenshotService.capture(driver);
+        ExtentManager.attachScreenshot(Status.INFO, title, path);
+        return path;
+    }
+
+    // Starts sampling RTCPeerConnection stats in this page; call before joining the call
+    public RtcStatsSampler startRtcSampler(Duration interval) {
+        return new RtcStatsSampler(driver, interval).start();
+    }
+
     public void hoverOverElement(WebElement element) {
         Actions actions = new Actions(driver);
         actions.moveToElement(waitForVisibility(element)).perform();
@@ -106,10 +181,12 @@ public class ReusableLibrary {
 
     public void switchToFrame(WebElement frameElement) {
         driver.switchTo().frame(waitForVisibility(frameElement));
+        elementCache.invalidate();
     }
 
     public void switchToDefaultContent() {
         driver.switchTo().defaultContent();
+        elementCache.invalidate();
     }
 
     public String getPageTitle() {
@@ -122,69 +199,65 @@ public class ReusableLibrary {
 
     public void navigateToURL(String url) {
         driver.navigate().to(url);
+        elementCache.invalidate();
     }
 
     public void refreshPage() {
         driver.navigate().refresh();
+        elementCache.invalidate();
     }
 
     public void closeBrowser() {
         driver.close();
+        elementCache.invalidate();
     }
 
+    // Goes through BrowserFactory so the session's Grid slot, profile copy and pool entry are released too
     public void quitDriver() {
-        driver.quit();
+        BrowserFactory.quitDriver(driver);
+        elementCache.invalidate();
     }
 
     // Dynamic Table Handling Methods
 
     public String getTableCellValue(By tableLocator, int rowIndex, int colIndex) {
-        WebElement table = waitForVisibility(driver.findElement(tableLocator));
-        WebElement cell = table.findElement(By.xpath(".//tr[" + rowIndex + "]/td[" + colIndex + "]"));
-        return cell.getText();
+        return withVisible(tableLocator, table ->
+                table.findElement(By.xpath(".//tr[" + rowIndex + "]/td[" + colIndex + "]")).getText());
     }
 
     public List<WebElement> getColumnValues(By tableLocator, int colIndex) {
-        WebElement table = waitForVisibility(driver.findElement(tableLocator));
-        return table.findElements(By.xpath(".//tr/td[" + colIndex + "]"));
+        return withVisible(tableLocator, table -> table.findElements(By.xpath(".//tr/td[" + colIndex + "]")));
     }
 
     public void clickTableCell(By tableLocator, int rowIndex, int colIndex) {
-        WebElement table = waitForVisibility(driver.findElement(tableLocator));
-        WebElement cell = table.findElement(By.xpath(".//tr[" + rowIndex + "]/td[" + colIndex + "]"));
-        cell.click();
+        withVisible(tableLocator, table -> {
+            table.findElement(By.xpath(".//tr[" + rowIndex + "]/td[" + colIndex + "]")).click();
+            return null;
+        });
     }
 
     public int getRowIndexByCellValue(By tableLocator, int columnIndex, String cellValue) {
-        WebElement table = waitForVisibility(driver.findElement(tableLocator));
-        List<WebElement> rows = table.findElements(By.xpath(".//tr"));
-        for (int i = 1; i <= rows.size(); i++) {
-            WebElement cell = rows.get(i - 1).findElement(By.xpath(".//td[" + columnIndex + "]"));
-            if (cell.getText().equalsIgnoreCase(cellValue)) {
-                return i;
-            }
-        }
-        return -1; // Not found
+        return snapshotTable(tableLocator).getRowIndexByCellValue(columnIndex, cellValue); // -1 if not found
+    }
+
+    public int getRowIndexByCellValue(By tableLocator, String columnHeader, String cellValue) {
+        return snapshotTable(tableLocator).getRowIndexByCellValue(columnHeader, cellValue);
+    }
+
+    // Captures the whole table (and optionally td attributes) in one executeScript round trip
+    public TableSnapshot snapshotTable(By tableLocator, String... attributeNames) {
+        return withVisible(tableLocator, table -> TableSnapshot.capture((JavascriptExecutor) driver, table, attributeNames));
     }
 
     public List<WebElement> getAllRows(By tableLocator) {
-        WebElement table = waitForVisibility(driver.findElement(tableLocator));
-        return table.findElements(By.xpath(".//tr"));
+        return withVisible(tableLocator, table -> table.findElements(By.xpath(".//tr")));
     }
 
     public boolean isValuePresentInTable(By tableLocator, String value) {
-        WebElement table = waitForVisibility(driver.findElement(tableLocator));
-        List<WebElement> cells = table.findElements(By.xpath(".//td"));
-        for (WebElement cell : cells) {
-            if (cell.getText().equalsIgnoreCase(value)) {
-                return true;
-            }
-        }
-        return false;
+        return snapshotTable(tableLocator).containsValue(value);
     }
 
     public List<WebElement> getRowValues(By tableLocator, int rowIndex) {
-        WebElement table = waitForVisibility(driver.findElement(tableLocator));
-        return table.findElements(By.xpath(".//tr[" + rowIndex + "]/td"));
+        return withVisible(tableLocator, table -> table.findElements(By.xpath(".//tr[" + rowIndex + "]/td")));
     }
 }
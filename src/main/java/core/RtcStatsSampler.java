@@ -0,0 +1,353 @@
+package core;
+
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Samples RTCPeerConnection.getStats() inside the page and turns the samples into per-stream time
+// series. The in-page hook wraps the RTCPeerConnection constructor, polls every connection on its own
+// timer and buffers compact samples; drain() pulls the whole buffer in one executeScript call.
+// On Chrome/Edge the hook is registered with CDP so it survives navigation and sees connections created
+// during page load; elsewhere start() must run before the page creates its connections, and drain()
+// should be called before navigating away (the buffer lives in the page).
+//
+//   RtcStatsSampler sampler = library.startRtcSampler(Duration.ofSeconds(1));
+//   ... join the call ...
+//   sampler.drain();                       // as often as convenient; stop() drains one last time
+//   sampler.stop();
+//   sampler.publishSummary();
+//   sampler.assertAtMost(RtcStatsSampler.Metric.PACKET_LOSS_PERCENT, 2.0);
+public class RtcStatsSampler {
+
+    private static final Logger log = LogManager.getLogger(RtcStatsSampler.class);
+
+    public enum Metric {
+        BITRATE_KBPS("kbps"),
+        PACKET_LOSS_PERCENT("%"),
+        JITTER_MS("ms"),
+        RTT_MS("ms"),
+        FRAMES_PER_SECOND("fps");
+
+        private final String unit;
+
+        Metric(String unit) {
+            this.unit = unit;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+    }
+
+    private static final String HOOK_SCRIPT =
+            "(function () {" +
+            "  if (window.__rtcSampler || !window.RTCPeerConnection) return;" +
+            "  var s = window.__rtcSampler = { pcs: [], buffer: [], nextId: 1, max: %MAX%, timer: null };" +
+            "  var Original = window.RTCPeerConnection;" +
+            "  function Sampled(config, constraints) {" +
+            "    var pc = new Original(config, constraints);" +
+            "    pc.__rtcId = 'pc' + (s.nextId++);" +
+            "    s.pcs.push(pc);" +
+            "    return pc;" +
+            "  }" +
+            "  Sampled.prototype = Original.prototype;" +
+            "  Sampled.generateCertificate = Original.generateCertificate;" +
+            "  window.RTCPeerConnection = Sampled;" +
+            "  if (window.webkitRTCPeerConnection) window.webkitRTCPeerConnection = Sampled;" +
+            "  var FIELDS = ['kind', 'ssrc', 'bytesReceived', 'bytesSent', 'packetsReceived', 'packetsLost'," +
+            "      'jitter', 'framesDecoded', 'framesEncoded', 'framesPerSecond', 'roundTripTime', 'fractionLost'," +
+            "      'currentRoundTripTime', 'state', 'nominated'];" +
+            "  var TYPES = ['inbound-rtp', 'outbound-rtp', 'remote-inbound-rtp', 'candidate-pair'];" +
+            "  s.sample = function () {" +
+            "    s.pcs = s.pcs.filter(function (pc) { return pc.connectionState !== 'closed'; });" +
+            "    s.pcs.forEach(function (pc) {" +
+            "      pc.getStats().then(function (report) {" +
+            "        var entries = [];" +
+            "        report.forEach(function (st) {" +
+            "          if (TYPES.indexOf(st.type) < 0) return;" +
+            "          if (st.type === 'candidate-pair' && !(st.nominated && st.state === 'succeeded')) return;" +
+            "          var e = { type: st.type, t: st.timestamp };" +
+            "          FIELDS.forEach(function (f) { if (st[f] !== undefined) e[f] = st[f]; });" +
+            "          entries.push(e);" +
+            "        });" +
+            "        s.buffer.push({ pc: pc.__rtcId, stats: entries });" +
+            "        if (s.buffer.length > s.max) s.buffer.shift();" +
+            "      }).catch(function () {});" +
+            "    });" +
+            "  };" +
+            "  s.drain = function () { var b = s.buffer; s.buffer = []; return b; };" +
+            "  s.stop = function () { clearInterval(s.timer); s.timer = null; };" +
+            "  s.timer = setInterval(s.sample, %INTERVAL%);" +
+            "})();";
+
+    private static final String DRAIN_SCRIPT =
+            "return window.__rtcSampler ? window.__rtcSampler.drain() : [];";
+
+    private static final String STOP_SCRIPT =
+            "if (window.__rtcSampler) { window.__rtcSampler.stop(); return window.__rtcSampler.drain(); } return [];";
+
+    private final WebDriver driver;
+    private final String hookScript;
+    private final Map<String, Series> series = new TreeMap<>();
+    private final Map<String, Map<String, Object>> previous = new HashMap<>();
+    private String cdpScriptId;
+    private int samplesDrained;
+
+    // RTC_SAMPLE_BUFFER caps the in-page buffer (samples per connection tick, oldest dropped first)
+    public RtcStatsSampler(WebDriver driver, Duration interval) {
+        this.driver = driver;
+        this.hookScript = HOOK_SCRIPT
+                .replace("%INTERVAL%", String.valueOf(Math.max(100, interval.toMillis())))
+                .replace("%MAX%", String.valueOf(ConfigManager.getInt("RTC_SAMPLE_BUFFER", 5000)));
+    }
+
+    public RtcStatsSampler start() {
+        if (driver instanceof HasCdp && cdpScriptId == null) {
+            try {
+                Map<String, Object> result = ((HasCdp) driver).executeCdpCommand(
+                        "Page.addScriptToEvaluateOnNewDocument", Map.of("source", hookScript));
+                cdpScriptId = String.valueOf(result.get("identifier"));
+            } catch (WebDriverException e) {
+                log.warn("Unable to register WebRTC stats hook via CDP: {}", e.getMessage());
+            }
+        }
+        ((JavascriptExecutor) driver).executeScript(hookScript);
+        return this;
+    }
+
+    // One round trip for everything sampled since the previous drain
+    public int drain() {
+        return ingest(((JavascriptExecutor) driver).executeScript(DRAIN_SCRIPT));
+    }
+
+    public void stop() {
+        try {
+            ingest(((JavascriptExecutor) driver).executeScript(STOP_SCRIPT));
+            if (cdpScriptId != null) {
+                ((HasCdp) driver).executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument",
+                        Map.of("identifier", cdpScriptId));
+                cdpScriptId = null;
+            }
+        } catch (WebDriverException e) {
+            log.warn("Unable to stop WebRTC stats sampler: {}", e.getMessage());
+        }
+    }
+
+    public int getSampleCount() {
+        return samplesDrained;
+    }
+
+    // Stream key ("pc1 inbound video 12345", "pc1 transport") -> series
+    public Map<String, Series> getSeries() {
+        return Collections.unmodifiableMap(series);
+    }
+
+    private int ingest(Object raw) {
+        if (!(raw instanceof List)) {
+            return 0;
+        }
+        List<?> samples = (List<?>) raw;
+        for (Object sample : samples) {
+            Map<?, ?> tick = (Map<?, ?>) sample;
+            String pc = String.valueOf(tick.get("pc"));
+            for (Object entry : (List<?>) tick.get("stats")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> stat = (Map<String, Object>) entry;
+                ingest(pc, stat);
+            }
+        }
+        samplesDrained += samples.size();
+        return samples.size();
+    }
+
+    private void ingest(String pc, Map<String, Object> stat) {
+        String type = String.valueOf(stat.get("type"));
+        String key;
+        switch (type) {
+            case "inbound-rtp":
+                key = pc + " inbound " + stat.get("kind") + " " + stat.get("ssrc");
+                break;
+            case "outbound-rtp":
+                key = pc + " outbound " + stat.get("kind") + " " + stat.get("ssrc");
+                break;
+            case "remote-inbound-rtp":
+                // the remote end's view of our outbound stream: RTT and loss
+                key = pc + " outbound " + stat.get("kind") + " " + stat.get("ssrc");
+                break;
+            default:
+                key = pc + " transport";
+        }
+        Series target = series.computeIfAbsent(key, Series::new);
+        long time = (long) number(stat, "t");
+        Map<String, Object> last = previous.put(key + "|" + type, stat);
+
+        switch (type) {
+            case "inbound-rtp":
+                target.addRate(Metric.BITRATE_KBPS, time, last, stat, "bytesReceived", 8 / 1000.0);
+                target.add(Metric.JITTER_MS, time, number(stat, "jitter") * 1000);
+                target.add(Metric.FRAMES_PER_SECOND, time, number(stat, "framesPerSecond"));
+                if (last != null) {
+                    double lost = number(stat, "packetsLost") - number(last, "packetsLost");
+                    double received = number(stat, "packetsReceived") - number(last, "packetsReceived");
+                    if (lost >= 0 && received >= 0 && lost + received > 0) {
+                        target.add(Metric.PACKET_LOSS_PERCENT, time, 100 * lost / (lost + received));
+                    }
+                }
+                break;
+            case "outbound-rtp":
+                target.addRate(Metric.BITRATE_KBPS, time, last, stat, "bytesSent", 8 / 1000.0);
+                target.add(Metric.FRAMES_PER_SECOND, time, number(stat, "framesPerSecond"));
+                break;
+            case "remote-inbound-rtp":
+                target.add(Metric.RTT_MS, time, number(stat, "roundTripTime") * 1000);
+                target.add(Metric.PACKET_LOSS_PERCENT, time, number(stat, "fractionLost") * 100);
+                break;
+            default:
+                target.add(Metric.RTT_MS, time, number(stat, "currentRoundTripTime") * 1000);
+        }
+    }
+
+    private static double number(Map<String, Object> stat, String field) {
+        Object value = stat.get(field);
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    // Stream, metric, samples, min, mean, max
+    public List<String[]> getRows() {
+        List<String[]> rows = new ArrayList<>();
+        for (Series s : series.values()) {
+            for (Metric metric : Metric.values()) {
+                List<double[]> points = s.getPoints(metric);
+                if (points.isEmpty()) {
+                    continue;
+                }
+                rows.add(new String[]{s.getKey(), metric.name() + " (" + metric.getUnit() + ")",
+                        String.valueOf(points.size()), format(s.getMin(metric)), format(s.getMean(metric)),
+                        format(s.getMax(metric))});
+            }
+        }
+        return rows;
+    }
+
+    // Adds the summary table to the current thread's ExtentManager test
+    public void publishSummary() {
+        drain();
+        List<String[]> rows = getRows();
+        String[][] table = new String[rows.size() + 1][];
+        table[0] = new String[]{"Stream", "Metric", "Samples", "Min", "Mean", "Max"};
+        for (int i = 0; i < rows.size(); i++) {
+            table[i + 1] = rows.get(i);
+        }
+        ExtentManager.info("WebRTC media stats (" + samplesDrained + " samples)");
+        ExtentManager.log(Status.INFO, MarkupHelper.createTable(table));
+    }
+
+    // Threshold checks use the mean of every stream that reports the metric and log PASS/FAIL per stream
+    public boolean checkAtMost(Metric metric, double limit) {
+        return check(metric, limit, true);
+    }
+
+    public boolean checkAtLeast(Metric metric, double limit) {
+        return check(metric, limit, false);
+    }
+
+    public void assertAtMost(Metric metric, double limit) {
+        if (!checkAtMost(metric, limit)) {
+            throw new AssertionError(metric + " mean above " + format(limit) + " " + metric.getUnit());
+        }
+    }
+
+    public void assertAtLeast(Metric metric, double limit) {
+        if (!checkAtLeast(metric, limit)) {
+            throw new AssertionError(metric + " mean below " + format(limit) + " " + metric.getUnit());
+        }
+    }
+
+    private boolean check(Metric metric, double limit, boolean atMost) {
+        drain();
+        boolean passed = true;
+        boolean measured = false;
+        for (Series s : series.values()) {
+            if (s.getPoints(metric).isEmpty()) {
+                continue;
+            }
+            measured = true;
+            double mean = s.getMean(metric);
+            boolean ok = atMost ? mean <= limit : mean >= limit;
+            passed &= ok;
+            ExtentManager.log(ok ? Status.PASS : Status.FAIL, String.format(Locale.ROOT, "%s %s: mean %s %s (%s %s)",
+                    s.getKey(), metric, format(mean), metric.getUnit(), atMost ? "max" : "min", format(limit)));
+        }
+        if (!measured) {
+            ExtentManager.log(Status.WARNING, "No " + metric + " samples to check");
+        }
+        return passed;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    // Time series of one RTP stream or the selected transport; points are {timestampMillis, value}
+    public static class Series {
+        private final String key;
+        private final Map<Metric, List<double[]>> points = new HashMap<>();
+
+        Series(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public List<double[]> getPoints(Metric metric) {
+            return Collections.unmodifiableList(points.getOrDefault(metric, Collections.emptyList()));
+        }
+
+        public double getMin(Metric metric) {
+            return getPoints(metric).stream().mapToDouble(p -> p[1]).min().orElse(Double.NaN);
+        }
+
+        public double getMax(Metric metric) {
+            return getPoints(metric).stream().mapToDouble(p -> p[1]).max().orElse(Double.NaN);
+        }
+
+        public double getMean(Metric metric) {
+            return getPoints(metric).stream().mapToDouble(p -> p[1]).average().orElse(Double.NaN);
+        }
+
+        void add(Metric metric, long time, double value) {
+            if (!Double.isNaN(value)) {
+                points.computeIfAbsent(metric, m -> new ArrayList<>()).add(new double[]{time, value});
+            }
+        }
+
+        // Per-second rate of a cumulative counter between two samples (timestamps are in ms)
+        void addRate(Metric metric, long time, Map<String, Object> last, Map<String, Object> current,
+                     String counter, double scale) {
+            if (last == null) {
+                return;
+            }
+            double elapsed = (number(current, "t") - number(last, "t")) / 1000.0;
+            double delta = number(current, counter) - number(last, counter);
+            if (elapsed > 0 && delta >= 0) {
+                add(metric, time, delta / elapsed * scale);
+            }
+        }
+    }
+}
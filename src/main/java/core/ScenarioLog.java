@@ -0,0 +1,186 @@
+package core;
+
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.apache.logging.log4j.CloseableThreadContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Collects the log lines of one scenario so they can be attached to its Extent test. Lines are matched
+// on the "scenario" log context key that BrowserFactory.setScope() sets (participants of a BrowserContext
+// count as their scenario). The collecting appender runs behind the async loggers, so test threads never
+// wait on it while logging. stop() logs a "Scenario ... ended" line and waits until the appender has seen
+// it: the ring buffer is FIFO, so every line logged before it has been collected by then, including the
+// last lines before a failure. The wait is bounded by SCENARIO_LOG_DRAIN_MS (default 2000) and skipped
+// when INFO is disabled for this class. At most SCENARIO_LOG_MAX_LINES (default 2000) lines are kept per
+// scenario.
+//
+//   ScenarioLog.start();        // after BrowserFactory.setScope(...)
+//   ...
+//   ScenarioLog.attach();       // before the test context is cleared
+public class ScenarioLog {
+
+    private static final Logger log = LogManager.getLogger(ScenarioLog.class);
+    private static final String PATTERN = "%d{HH:mm:ss.SSS} %-5level [%t] %c{1} - %msg%n";
+    private static final Marker END = MarkerManager.getMarker("SCENARIO_LOG_END");
+
+    private static final Map<String, Capture> captures = new ConcurrentHashMap<>();
+    private static volatile boolean installed;
+
+    public static void start() {
+        start(BrowserFactory.getScope());
+    }
+
+    public static void start(String scenario) {
+        if (install()) {
+            captures.put(scenario, new Capture(ConfigManager.getInt("SCENARIO_LOG_MAX_LINES", 2000)));
+        }
+    }
+
+    // Stops capturing and returns the collected text ("" when nothing was captured)
+    public static String stop(String scenario) {
+        Capture capture = captures.get(scenario);
+        if (capture == null) {
+            return "";
+        }
+        boolean complete = drain(scenario, capture);
+        captures.remove(scenario, capture);
+        String text = capture.text();
+        return complete ? text : text + "... lines logged just before the end may be missing\n";
+    }
+
+    private static boolean drain(String scenario, Capture capture) {
+        if (!log.isInfoEnabled(END)) {
+            return true;
+        }
+        try (CloseableThreadContext.Instance context = CloseableThreadContext.put("scenario", scenario)) {
+            log.info(END, "Scenario {} ended", scenario);
+        }
+        try {
+            return capture.ended.await(ConfigManager.getLong("SCENARIO_LOG_DRAIN_MS", 2000L), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Stops capturing the current scenario and attaches its log to the current Extent test
+    public static void attach() {
+        attach(BrowserFactory.getScope());
+    }
+
+    public static void attach(String scenario) {
+        String text = stop(scenario);
+        if (!text.isEmpty()) {
+            ExtentManager.log(Status.INFO, MarkupHelper.createCodeBlock(text));
+        }
+    }
+
+    private static boolean install() {
+        if (!installed) {
+            synchronized (ScenarioLog.class) {
+                if (!installed) {
+                    Object context = LogManager.getContext(false);
+                    if (!(context instanceof LoggerContext)) {
+                        log.warn("Scenario log capture needs Log4j2 core; found {}", context.getClass().getName());
+                        return false;
+                    }
+                    LoggerContext loggerContext = (LoggerContext) context;
+                    Configuration config = loggerContext.getConfiguration();
+                    CaptureAppender appender = new CaptureAppender(
+                            PatternLayout.newBuilder().withConfiguration(config).withPattern(PATTERN).build());
+                    appender.start();
+                    config.addAppender(appender);
+                    config.getRootLogger().addAppender(appender, null, null);
+                    loggerContext.updateLoggers();
+                    installed = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Capture captureFor(String scenario) {
+        Capture capture = captures.get(scenario);
+        if (capture == null) {
+            for (Map.Entry<String, Capture> entry : captures.entrySet()) {
+                if (scenario.startsWith(entry.getKey() + "/")) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return capture;
+    }
+
+    private static class Capture {
+        private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger dropped = new AtomicInteger();
+        private final CountDownLatch ended = new CountDownLatch(1);
+        private final int maxLines;
+
+        Capture(int maxLines) {
+            this.maxLines = maxLines;
+        }
+
+        void add(String line) {
+            if (count.incrementAndGet() <= maxLines) {
+                lines.add(line);
+            } else {
+                dropped.incrementAndGet();
+            }
+        }
+
+        String text() {
+            StringBuilder text = new StringBuilder();
+            for (String line : lines) {
+                text.append(line);
+            }
+            if (dropped.get() > 0) {
+                text.append("... ").append(dropped.get()).append(" more line(s) not captured\n");
+            }
+            return text.toString();
+        }
+    }
+
+    private static class CaptureAppender extends AbstractAppender {
+
+        CaptureAppender(PatternLayout layout) {
+            super("ScenarioLog", null, layout, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public void append(LogEvent event) {
+            if (captures.isEmpty()) {
+                return;
+            }
+            String scenario = event.getContextData().getValue("scenario");
+            if (scenario == null) {
+                return;
+            }
+            Capture capture = captureFor(scenario);
+            if (capture != null) {
+                capture.add(((PatternLayout) getLayout()).toSerializable(event));
+                if (END.equals(event.getMarker()) && capture == captures.get(scenario)) {
+                    capture.ended.countDown();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cucumber.testng.AbstractTestNGCucumberTests;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ITestContext;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Base runner that runs scenarios in parallel, longest first, optionally restricted to one shard.
+// Extend it instead of AbstractTestNGCucumberTests and keep the @CucumberOptions on the subclass.
+//
+//   SCENARIO_THREADS     workers (default: the suite's data-provider-thread-count)
+//   SCENARIO_DURATIONS   cucumber.json of a previous run (default target/cucumber-reports/cucumber.json)
+//   SHARD_INDEX/COUNT    run only shard i (0-based) of N
+//   SHARD_STRATEGY       hash (default): stable per scenario, safe when every machine has a different history;
+//                        balanced: longest-first greedy split, needs the same SCENARIO_DURATIONS on every machine
+//
+// Scenarios missing from the history are scheduled with the mean known duration.
+public abstract class ScheduledCucumberRunner extends AbstractTestNGCucumberTests {
+
+    private static final Logger log = LogManager.getLogger(ScheduledCucumberRunner.class);
+
+    private static final String DEFAULT_DURATIONS = "target/cucumber-reports/cucumber.json";
+
+    // TestNG runs this after the base class has created the Cucumber runner
+    @BeforeClass(alwaysRun = true)
+    public void configureScheduler(ITestContext context) {
+        int threads = ConfigManager.getInt("SCENARIO_THREADS", 0);
+        if (threads > 0) {
+            // Read by TestNG when it starts the parallel data provider, so this still applies to the run
+            context.getSuite().getXmlSuite().setDataProviderThreadCount(threads);
+        }
+    }
+
+    @Override
+    @DataProvider(parallel = true)
+    public Object[][] scenarios() {
+        Object[][] scenarios = super.scenarios();
+        if (scenarios.length == 0) {
+            return scenarios;
+        }
+        Map<String, Long> history = loadDurations(Paths.get(ConfigManager.getString("SCENARIO_DURATIONS", DEFAULT_DURATIONS)));
+        long fallback = (long) history.values().stream().mapToLong(Long::longValue).average().orElse(0);
+
+        List<Scheduled> scheduled = new ArrayList<>(scenarios.length);
+        for (Object[] scenario : scenarios) {
+            String key = keyOf(((PickleWrapper) scenario[0]).getPickle());
+            Long known = history.get(key);
+            scheduled.add(new Scheduled(scenario, key, known != null ? known : fallback, known != null));
+        }
+        scheduled.sort(Comparator.comparingLong((Scheduled s) -> s.nanos).reversed().thenComparing(s -> s.key));
+
+        int shardCount = ConfigManager.getInt("SHARD_COUNT", 1);
+        int shardIndex = ConfigManager.getInt("SHARD_INDEX", 0);
+        if (shardCount > 1) {
+            if (shardIndex < 0 || shardIndex >= shardCount) {
+                throw new IllegalArgumentException("SHARD_INDEX must be between 0 and " + (shardCount - 1) + ": " + shardIndex);
+            }
+            scheduled = shard(scheduled, shardIndex, shardCount, ConfigManager.getString("SHARD_STRATEGY", "hash"));
+        }
+
+        long known = scheduled.stream().filter(s -> s.fromHistory).count();
+        long total = scheduled.stream().mapToLong(s -> s.nanos).sum();
+        log.info("Scheduling {} scenario(s){} longest first ({} with history, ~{}s of work)",
+                scheduled.size(), shardCount > 1 ? " for shard " + shardIndex + "/" + shardCount : "",
+                known, total / 1_000_000_000L);
+
+        Object[][] ordered = new Object[scheduled.size()][];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = scheduled.get(i).scenario;
+        }
+        return ordered;
+    }
+
+    // Runs each scenario in its own browser scope, quits (or returns to the pool) every session the scenario
+    // opened, and leaves no report context on the pooled worker thread
+    @Override
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        String scope = keyOf(pickleWrapper.getPickle());
+        BrowserFactory.setScope(scope);
+        boolean captureLog = ConfigManager.getBoolean("SCENARIO_LOG", true);
+        if (captureLog) {
+            ScenarioLog.start(scope);
+        }
+        try {
+            super.runScenario(pickleWrapper, featureWrapper);
+        } finally {
+            if (captureLog) {
+                ScenarioLog.attach(scope);
+            }
+            ExtentManager.clearTest();
+            try {
+                BrowserFactory.cleanupScope(scope);
+            } finally {
+                BrowserFactory.clearScope();
+            }
+        }
+    }
+
+    static List<Scheduled> shard(List<Scheduled> scheduled, int shardIndex, int shardCount, String strategy) {
+        List<Scheduled> mine = new ArrayList<>();
+        if ("balanced".equalsIgnoreCase(strategy)) {
+            // input is already longest first, so this is the classic LPT split
+            long[] load = new long[shardCount];
+            for (Scheduled s : scheduled) {
+                int target = 0;
+                for (int i = 1; i < shardCount; i++) {
+                    if (load[i] < load[target]) {
+                        target = i;
+                    }
+                }
+                load[target] += Math.max(s.nanos, 1);
+                if (target == shardIndex) {
+                    mine.add(s);
+                }
+            }
+        } else {
+            for (Scheduled s : scheduled) {
+                if (Math.floorMod(s.key.hashCode(), shardCount) == shardIndex) {
+                    mine.add(s);
+                }
+            }
+        }
+        return mine;
+    }
+
+    // Feature path plus pickle line; example rows of an outline each have their own line. The path is
+    // relative to the working directory (or the classpath), so it matches the uri in cucumber.json and
+    // same-named feature files in different directories get different keys.
+    static String keyOf(Pickle pickle) {
+        return featurePath(pickle.getUri().toString()) + ":" + pickle.getLine();
+    }
+
+    static String featurePath(String uri) {
+        String path;
+        if (uri.startsWith("classpath:")) {
+            path = uri.substring("classpath:".length()).replaceFirst("^/+", "");
+        } else {
+            try {
+                URI parsed = new URI(uri);
+                if (parsed.isOpaque()) {
+                    path = parsed.getSchemeSpecificPart();
+                } else if (parsed.getScheme() != null) {
+                    path = relativize(Paths.get(parsed));
+                } else {
+                    path = relativize(Paths.get(uri));
+                }
+            } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+                path = uri;
+            }
+        }
+        return path.replace('\\', '/');
+    }
+
+    private static String relativize(Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        Path workingDirectory = Paths.get("").toAbsolutePath();
+        return absolute.startsWith(workingDirectory) ? workingDirectory.relativize(absolute).toString() : absolute.toString();
+    }
+
+    // Scenario key -> total nanos of its steps and hooks, from a cucumber.json report
+    static Map<String, Long> loadDurations(Path report) {
+        Map<String, Long> durations = new HashMap<>();
+        if (!Files.isRegularFile(report)) {
+            return durations;
+        }
+        try {
+            JsonNode features = JsonUtils.getMapper().readTree(report.toFile());
+            for (JsonNode feature : features) {
+                String file = featurePath(feature.path("uri").asText());
+                for (JsonNode element : feature.path("elements")) {
+                    if (!"scenario".equals(element.path("type").asText())) {
+                        continue;
+                    }
+                    long nanos = 0;
+                    for (String section : Arrays.asList("before", "steps", "after")) {
+                        for (JsonNode step : element.path(section)) {
+                            nanos += step.path("result").path("duration").asLong(0);
+                        }
+                    }
+                    durations.merge(file + ":" + element.path("line").asInt(), nanos, Long::sum);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable scenario history {}: {}", report, e.getMessage());
+        }
+        return durations;
+    }
+
+    static class Scheduled {
+        final Object[] scenario;
+        final String key;
+        final long nanos;
+        final boolean fromHistory;
+
+        Scheduled(Object[] scenario, String key, long nanos, boolean fromHistory) {
+            this.scenario = scenario;
+            this.key = key;
+            this.nanos = nanos;
+            this.fromHistory = fromHistory;
+        }
+    }
+}
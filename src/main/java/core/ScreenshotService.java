@@ -0,0 +1,203 @@
+package core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Screenshots written as files next to the Extent report instead of inline base64. The test
+// thread only grabs the PNG bytes and hashes them; downscaling, JPEG recompression and the disk
+// write run on a small bounded executor. A frame identical to one already on disk reuses that file,
+// and when the queue or the in-flight byte budget is exhausted new screenshots are dropped rather
+// than buffered.
+public class ScreenshotService {
+
+    private static final Logger log = LogManager.getLogger(ScreenshotService.class);
+
+    private static final String DIRECTORY = "screenshots";
+
+    // Only files whose write has completed, so a deduplicated capture never links to a missing file
+    private static final Set<String> written = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong pendingBytes = new AtomicLong();
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder duplicates = new LongAdder();
+    private static ThreadPoolExecutor executor;
+
+    private ScreenshotService() {
+    }
+
+    // Captures the page and returns its path relative to the report, or null if it was dropped
+    public static String capture(WebDriver driver) {
+        byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        return submit(png);
+    }
+
+    public static String submit(byte[] png) {
+        String format = ConfigManager.getString("SCREENSHOT_FORMAT", "jpg").toLowerCase();
+        String relativePath = DIRECTORY + "/" + hash(png) + "." + format;
+        if (written.contains(relativePath)) {
+            duplicates.increment();
+            return relativePath;
+        }
+
+        long budget = ConfigManager.getLong("SCREENSHOT_MAX_PENDING_BYTES", 64L * 1024 * 1024);
+        if (pendingBytes.addAndGet(png.length) > budget) {
+            pendingBytes.addAndGet(-png.length);
+            return drop();
+        }
+        try {
+            executor().execute(() -> {
+                try {
+                    write(png, format, Paths.get(ExtentManager.REPORT_DIRECTORY).resolve(relativePath));
+                    written.add(relativePath);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Error writing screenshot {}: {}", relativePath, e.getMessage());
+                } finally {
+                    pendingBytes.addAndGet(-png.length);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingBytes.addAndGet(-png.length);
+            return drop();
+        }
+        return relativePath;
+    }
+
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public static long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    // Blocks until every queued screenshot is on disk, e.g. before the final report flush
+    public static void awaitPending(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pendingBytes.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static String drop() {
+        dropped.increment();
+        return null;
+    }
+
+    private static void write(byte[] png, String format, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        // An identical frame captured while this one is still being written has its own write; a unique
+        // temp file keeps the two from clobbering each other before the atomic move
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            double scale = Double.parseDouble(ConfigManager.getString("SCREENSHOT_SCALE", "1.0"));
+            if ("png".equals(format) && scale >= 1.0) {
+                Files.write(temp, png);
+            } else {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+                if (image == null) {
+                    throw new IOException("Screenshot is not a readable image");
+                }
+                BufferedImage output = resize(image, Math.min(scale, 1.0), "png".equals(format));
+                if ("png".equals(format)) {
+                    ImageIO.write(output, "png", temp.toFile());
+                } else {
+                    writeJpeg(output, temp, Float.parseFloat(ConfigManager.getString("SCREENSHOT_QUALITY", "0.75")));
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage image, double scale, boolean keepAlpha) {
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage output = new BufferedImage(width, height, keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = output.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return output;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 12; i++) {
+                sb.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static synchronized ThreadPoolExecutor executor() {
+        if (executor == null) {
+            int threads = ConfigManager.getInt("SCREENSHOT_THREADS", 2);
+            executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(ConfigManager.getInt("SCREENSHOT_QUEUE", 64)), runnable -> {
+                        Thread thread = new Thread(runnable, "screenshot-writer");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            ThreadPoolExecutor started = executor;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                started.shutdown();
+                try {
+                    started.awaitTermination(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "screenshot-writer-shutdown"));
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,167 @@
+package core;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Immutable copy of an HTML table, captured with a single executeScript call. Rows are every <tr>
+// of the table in document order and cells are the <td> children of each row, both 1-based like
+// the table helpers in ReusableLibrary. Value lookups are case-insensitive.
+public class TableSnapshot {
+
+    private static final String CAPTURE_SCRIPT =
+            "var table = arguments[0], names = arguments[1] || [];"
+            + "var text = function (el) { return (el.innerText || el.textContent || '').trim(); };"
+            + "var result = { headers: [], rows: [], attributes: [] };"
+            + "var trs = table.querySelectorAll('tr');"
+            + "for (var r = 0; r < trs.length; r++) {"
+            + "  var cells = [], attrs = [], heads = [];"
+            + "  for (var c = 0; c < trs[r].children.length; c++) {"
+            + "    var cell = trs[r].children[c], tag = cell.tagName.toUpperCase();"
+            + "    if (tag === 'TD') {"
+            + "      cells.push(text(cell));"
+            + "      if (names.length) {"
+            + "        var values = {};"
+            + "        for (var n = 0; n < names.length; n++) { values[names[n]] = cell.getAttribute(names[n]); }"
+            + "        attrs.push(values);"
+            + "      }"
+            + "    } else if (tag === 'TH') {"
+            + "      heads.push(text(cell));"
+            + "    }"
+            + "  }"
+            + "  if (heads.length && !result.headers.length) { result.headers = heads; }"
+            + "  result.rows.push(cells);"
+            + "  result.attributes.push(attrs);"
+            + "}"
+            + "return result;";
+
+    private final List<String> headers;
+    private final List<List<String>> rows;
+    private final List<List<Map<String, String>>> attributes;
+    private final Map<Integer, Map<String, Integer>> columnIndexes = new ConcurrentHashMap<>();
+
+    TableSnapshot(List<String> headers, List<List<String>> rows, List<List<Map<String, String>>> attributes) {
+        this.headers = headers;
+        this.rows = rows;
+        this.attributes = attributes;
+    }
+
+    // Reads the whole table, plus the named attributes of every <td>, in one round trip
+    @SuppressWarnings("unchecked")
+    public static TableSnapshot capture(JavascriptExecutor executor, WebElement table, String... attributeNames) {
+        Map<String, Object> raw = (Map<String, Object>) executor.executeScript(CAPTURE_SCRIPT, table, List.of(attributeNames));
+        List<String> headers = toStrings((List<Object>) raw.get("headers"));
+        List<List<String>> rows = new ArrayList<>();
+        for (Object row : (List<Object>) raw.get("rows")) {
+            rows.add(toStrings((List<Object>) row));
+        }
+        List<List<Map<String, String>>> attributes = new ArrayList<>();
+        for (Object row : (List<Object>) raw.get("attributes")) {
+            List<Map<String, String>> cells = new ArrayList<>();
+            for (Object cell : (List<Object>) row) {
+                Map<String, String> values = new HashMap<>();
+                ((Map<String, Object>) cell).forEach((name, value) -> values.put(name, value == null ? null : value.toString()));
+                cells.add(Collections.unmodifiableMap(values));
+            }
+            attributes.add(Collections.unmodifiableList(cells));
+        }
+        return new TableSnapshot(headers, Collections.unmodifiableList(rows), Collections.unmodifiableList(attributes));
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public List<String> getRow(int rowIndex) {
+        return rowIndex >= 1 && rowIndex <= rows.size() ? rows.get(rowIndex - 1) : Collections.emptyList();
+    }
+
+    public String getCell(int rowIndex, int colIndex) {
+        List<String> row = getRow(rowIndex);
+        return colIndex >= 1 && colIndex <= row.size() ? row.get(colIndex - 1) : null;
+    }
+
+    public String getAttribute(int rowIndex, int colIndex, String name) {
+        if (rowIndex < 1 || rowIndex > attributes.size()) {
+            return null;
+        }
+        List<Map<String, String>> row = attributes.get(rowIndex - 1);
+        return colIndex >= 1 && colIndex <= row.size() ? row.get(colIndex - 1).get(name) : null;
+    }
+
+    public List<String> getColumn(int colIndex) {
+        List<String> column = new ArrayList<>();
+        for (List<String> row : rows) {
+            if (colIndex >= 1 && colIndex <= row.size()) {
+                column.add(row.get(colIndex - 1));
+            }
+        }
+        return column;
+    }
+
+    // 1-based column index of a header cell, or -1 if the table has no such header
+    public int getColumnIndex(String header) {
+        for (int i = 0; i < headers.size(); i++) {
+            if (headers.get(i).equalsIgnoreCase(header)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // 1-based index of the first row whose cell in the column matches, or -1 (indexed on first use)
+    public int getRowIndexByCellValue(int colIndex, String value) {
+        Integer row = columnIndexes.computeIfAbsent(colIndex, this::buildIndex).get(normalize(value));
+        return row == null ? -1 : row;
+    }
+
+    public int getRowIndexByCellValue(String header, String value) {
+        int colIndex = getColumnIndex(header);
+        return colIndex < 0 ? -1 : getRowIndexByCellValue(colIndex, value);
+    }
+
+    public boolean containsValue(String value) {
+        for (List<String> row : rows) {
+            for (String cell : row) {
+                if (cell.equalsIgnoreCase(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Integer> buildIndex(int colIndex) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int r = 0; r < rows.size(); r++) {
+            List<String> row = rows.get(r);
+            if (colIndex >= 1 && colIndex <= row.size()) {
+                index.putIfAbsent(normalize(row.get(colIndex - 1)), r + 1);
+            }
+        }
+        return index;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> toStrings(List<Object> values) {
+        List<String> strings = new ArrayList<>(values.size());
+        for (Object value : values) {
+            strings.add(value == null ? "" : value.toString());
+        }
+        return Collections.unmodifiableList(strings);
+    }
+}